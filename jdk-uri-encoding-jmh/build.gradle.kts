@@ -0,0 +1,33 @@
+plugins {
+    java
+}
+
+dependencies {
+    implementation(project(":jdk-uri-encoding"))
+    implementation("org.openjdk.jmh:jmh-core")
+    annotationProcessor(platform(project(":versions")))
+    annotationProcessor("org.openjdk.jmh:jmh-generator-annprocess")
+}
+
+// the legacy variants use the same string concatenation as the library
+tasks.withType<JavaCompile>().configureEach {
+    options.compilerArgs.add("-XDstringConcat=inline")
+}
+
+// run all benchmarks with allocation profiling:  ./gradlew :jdk-uri-encoding-jmh:jmh
+// run a selection of benchmarks:                 ./gradlew :jdk-uri-encoding-jmh:jmh -Pjmh.includes=URIConstruction
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks and reports throughput and allocation per operation."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+
+    val resultFile = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+    doFirst {
+        resultFile.parentFile.mkdirs()
+    }
+    args("-prof", "gc", "-rf", "json", "-rff", resultFile.absolutePath)
+    if (project.hasProperty("jmh.includes")) {
+        args(project.property("jmh.includes").toString())
+    }
+}
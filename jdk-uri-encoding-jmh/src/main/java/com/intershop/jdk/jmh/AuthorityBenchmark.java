@@ -0,0 +1,75 @@
+package com.intershop.jdk.jmh;
+
+import com.intershop.jdk.URIBuilder;
+import com.intershop.jdk.URLBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.IDN;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the host stage of the builder with a conversion of the host by IDN#toASCII per URL.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class AuthorityBenchmark
+{
+    @Param({ "shop.example", "bücher-münchen.example" })
+    public String host;
+
+    private String[] ids;
+    private int index;
+    private URLBuilder.URLBuilderWithHost hostBuilder;
+
+    @Setup
+    public void setup()
+    {
+        ids = InputProfile.ASCII.createIDs();
+        hostBuilder = URIBuilder.createURL().scheme("https").host(host);
+    }
+
+    private String nextID()
+    {
+        index = (index + 1) & (InputProfile.SIZE - 1);
+        return ids[index];
+    }
+
+    /**
+     * The host is converted once by the reused builder.
+     */
+    @Benchmark
+    public String reusedHostBuilder()
+    {
+        return hostBuilder.pathElements("rest", "customers", nextID()).buildString();
+    }
+
+    /**
+     * A new builder per URL, the conversion is memoized.
+     */
+    @Benchmark
+    public String hostPerURL()
+    {
+        return URIBuilder.createURL().scheme("https").host(host).pathElements("rest", "customers", nextID()).buildString();
+    }
+
+    @Benchmark
+    public String idnToASCIIPerURL()
+    {
+        return URIBuilder.createURL().scheme("https").server(IDN.toASCII(host)).pathElements("rest", "customers", nextID())
+                        .buildString();
+    }
+}
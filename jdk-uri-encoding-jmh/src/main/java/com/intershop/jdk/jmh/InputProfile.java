@@ -0,0 +1,80 @@
+package com.intershop.jdk.jmh;
+
+import java.util.Random;
+
+/**
+ * Identifier profiles used as path elements by the benchmarks.
+ */
+public enum InputProfile
+{
+    /**
+     * Pure ASCII identifier, nothing to escape.
+     */
+    ASCII
+    {
+        @Override
+        String createID(Random random, int index)
+        {
+            return "2024-" + (100000 + random.nextInt(900000));
+        }
+    },
+    /**
+     * Identifier with '/', '+' and ' '.
+     */
+    RESERVED
+    {
+        @Override
+        String createID(Random random, int index)
+        {
+            return "USA 2024/" + random.nextInt(10000) + "+" + index;
+        }
+    },
+    /**
+     * Long ASCII identifier with a single character to escape.
+     */
+    LONG
+    {
+        @Override
+        String createID(Random random, int index)
+        {
+            StringBuilder builder = new StringBuilder(256);
+            while (builder.length() < 240)
+            {
+                builder.append(Long.toHexString(random.nextLong()));
+            }
+            return builder.append(' ').append(index).toString();
+        }
+    },
+    /**
+     * Identifier with umlauts and CJK characters.
+     */
+    NON_ASCII
+    {
+        @Override
+        String createID(Random random, int index)
+        {
+            return (index % 2 == 0 ? "Müller Straße " : "東京都 渋谷区 ") + random.nextInt(10000);
+        }
+    };
+
+    /**
+     * Number of different identifiers per profile, used round robin to avoid constant folding.
+     */
+    public static final int SIZE = 64;
+
+    abstract String createID(Random random, int index);
+
+    /**
+     * @return identifiers of this profile, created reproducible with a fixed seed
+     */
+    public String[] createIDs()
+    {
+        Random random = new Random(4711);
+        String[] ids = new String[SIZE];
+        for (int i = 0; i < SIZE; i++)
+        {
+            ids[i] = createID(random, i);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,65 @@
+package com.intershop.jdk.jmh;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Copy of the first URIBuilder path encoding (byte array and branch chain per byte),
+ * kept as reference to measure the current implementation against.
+ */
+final class LegacyURIBuilder
+{
+    private static final String HEX_CODE_UPPER = "0123456789ABCDEF";
+
+    private LegacyURIBuilder()
+    {
+    }
+
+    static String combinePathElements(Character pathSeparator, String[] pathElements)
+    {
+        return Arrays.stream(pathElements).map((e) -> encodeEntry(e, pathSeparator)).collect(Collectors.joining("/"));
+    }
+
+    private static String encodeEntry(String entry, Character pathSeparator)
+    {
+        byte stringBytes[] = entry.getBytes(StandardCharsets.UTF_8);
+        int l = stringBytes.length;
+        StringBuilder builder = new StringBuilder(entry.length());
+        for (int i = 0; i < l; i++)
+        {
+            byte chValue = stringBytes[i];
+            if (isPchar(chValue) && pathSeparator != chValue)
+            {
+                builder.append((char) chValue);
+            }
+            else
+            {
+                builder.append('%');
+                int intValue = chValue;
+                builder.append(HEX_CODE_UPPER.charAt((intValue >>> 4) & 0xf));
+                builder.append(HEX_CODE_UPPER.charAt(intValue & 0xf));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean isPchar(byte chValue)
+    {
+        return isUnreserved(chValue) || isSubDelims(chValue) || (chValue == ':') || (chValue == '@');
+    }
+
+    private static boolean isUnreserved(byte chValue)
+    {
+        return (chValue == '-') || (chValue == '_') || (chValue == '.') || (chValue == '~')
+                        || (chValue >= 48) && (chValue <= 57)
+                        || (chValue >= 65) && (chValue <= 90)
+                        || (chValue >= 97) && (chValue <= 122);
+    }
+
+    private static boolean isSubDelims(byte chValue)
+    {
+        return (chValue == '!') || (chValue == '$') || (chValue == '&') || (chValue == '\'') || (chValue == '(') || (chValue == ')')
+                        || (chValue == '*') || (chValue == '+') || (chValue == ',') || (chValue == ';') || (chValue == '=');
+    }
+}
@@ -0,0 +1,66 @@
+package com.intershop.jdk.jmh;
+
+import com.intershop.jdk.URIBuilder;
+import com.intershop.jdk.URIDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the split of a raw request path into decoded path elements.
+ * URI#getPath decodes before the split, so an encoded slash is a separator there.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class PathDecodeBenchmark
+{
+    @Param({ "ASCII", "RESERVED", "LONG", "NON_ASCII" })
+    public InputProfile profile;
+
+    private String[] rawPaths;
+    private int index;
+
+    @Setup
+    public void setup()
+    {
+        String[] ids = profile.createIDs();
+        rawPaths = new String[ids.length];
+        for (int i = 0; i < ids.length; i++)
+        {
+            rawPaths[i] = "/" + URIBuilder.combinePathElements('/', new String[] { "rest", "customers", ids[i], "addresses", "shipping address" });
+        }
+    }
+
+    private String nextRawPath()
+    {
+        index = (index + 1) & (InputProfile.SIZE - 1);
+        return rawPaths[index];
+    }
+
+    @Benchmark
+    public String[] uriDecoder()
+    {
+        return URIDecoder.decodeRawPath(nextRawPath());
+    }
+
+    @Benchmark
+    public String[] uriGetPathSplit()
+    {
+        return URI.create(nextRawPath()).getPath().split("/");
+    }
+}
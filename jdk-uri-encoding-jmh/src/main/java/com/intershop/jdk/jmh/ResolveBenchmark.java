@@ -0,0 +1,62 @@
+package com.intershop.jdk.jmh;
+
+import com.intershop.jdk.EncodedURI;
+import com.intershop.jdk.URIBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the resolution of relative links of an HTML page against the URI of the page.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class ResolveBenchmark
+{
+    private static final String[] LINKS = { "addresses/shipping%20address", "../orders?page=2", "/rest/categories/shoes", "./2024-1235",
+                    "#top", "../../status", "2024%2F1236/addresses", "?sort=name" };
+
+    private EncodedURI encodedBase;
+    private URI base;
+    private int index;
+
+    @Setup
+    public void setup()
+    {
+        encodedBase = URIBuilder.createURL().scheme("https").server("servername").pathElements("rest", "customers", "2024/1234")
+                        .buildEncoded();
+        base = URI.create(encodedBase.toString());
+    }
+
+    private String nextLink()
+    {
+        index = (index + 1) & (LINKS.length - 1);
+        return LINKS[index];
+    }
+
+    @Benchmark
+    public String encodedURIResolve()
+    {
+        return encodedBase.resolve(nextLink()).toString();
+    }
+
+    @Benchmark
+    public String uriResolve()
+    {
+        return base.resolve(nextLink()).toString();
+    }
+}
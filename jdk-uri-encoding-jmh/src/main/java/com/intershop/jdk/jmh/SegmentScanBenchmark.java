@@ -0,0 +1,79 @@
+package com.intershop.jdk.jmh;
+
+import com.intershop.jdk.URIEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar encoder with the Vector API scanner for long ASCII segments with a few characters to escape.
+ * The same code runs in a fork with and without the module jdk.incubator.vector.
+ * With -prof gc, a segment without characters to escape shows the allocation of the scan, one small chunk per call
+ * independent of the length.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Thread)
+public class SegmentScanBenchmark
+{
+    @Param({ "8", "32", "128", "512", "1024", "4096" })
+    public int length;
+
+    /**
+     * Number of characters to escape per 1000 characters
+     */
+    @Param({ "0", "4", "50" })
+    public int escapesPerMille;
+
+    private String[] segments;
+    private int index;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(4711);
+        segments = new String[InputProfile.SIZE];
+        for (int i = 0; i < segments.length; i++)
+        {
+            StringBuilder segment = new StringBuilder(length);
+            while (segment.length() < length)
+            {
+                segment.append(random.nextInt(1000) < escapesPerMille ? ' ' : (char) ('a' + random.nextInt(26)));
+            }
+            segments[i] = segment.toString();
+        }
+    }
+
+    private String nextSegment()
+    {
+        index = (index + 1) & (InputProfile.SIZE - 1);
+        return segments[index];
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = "-Dcom.intershop.jdk.uri.vector=false")
+    public String scalar()
+    {
+        return URIEncoder.PATH_SEGMENT.encode(nextSegment());
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+    public String vector()
+    {
+        return URIEncoder.PATH_SEGMENT.encode(nextSegment());
+    }
+}
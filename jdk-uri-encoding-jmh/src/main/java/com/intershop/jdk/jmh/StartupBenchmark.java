@@ -0,0 +1,44 @@
+package com.intershop.jdk.jmh;
+
+import com.intershop.jdk.URIBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to the first URL in a fresh JVM, e.g. of a CLI tool or a serverless function.
+ * Each fork calls the builder once, so the time includes class loading and initialization of the encoders.
+ * The stream based path encoding of the first URIBuilder bootstraps the lambdas on its first call.
+ * Both modules are compiled with {@code -XDstringConcat=inline}, so neither variant bootstraps the StringConcatFactory.
+ * JMH initializes parts of the JDK before the measurement, so the difference is lower than in a real application.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class StartupBenchmark
+{
+    private final String[] pathElements = { "rest", "customers", "2024/1234", "addresses", "shipping address" };
+
+    @Benchmark
+    public String uriBuilder()
+    {
+        return URIBuilder.createURL().scheme("https").server("www.example.com").pathElements(pathElements).buildString();
+    }
+
+    @Benchmark
+    public String legacy()
+    {
+        return "https://www.example.com/" + LegacyURIBuilder.combinePathElements('/', pathElements);
+    }
+}
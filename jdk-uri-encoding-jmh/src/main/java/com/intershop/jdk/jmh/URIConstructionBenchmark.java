@@ -0,0 +1,158 @@
+package com.intershop.jdk.jmh;
+
+import com.intershop.jdk.URIBuilder;
+import com.intershop.jdk.URITemplate;
+import com.intershop.jdk.URLBuilder;
+import com.intershop.jdk.URLWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the strategies to create the URI of a customer REST resource,
+ * see README and the test classes URIBuilderTest, URITest and URLEncodeTest.
+ *
+ * Run with "-prof gc" to get the allocation per operation (gc.alloc.rate.norm).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class URIConstructionBenchmark
+{
+    private static final String SCHEME = "https";
+    private static final String SERVER = "servername";
+    private static final String RESOURCE_PATH = "https://servername/rest/customers/";
+    private static final URITemplate CUSTOMER_TEMPLATE = URIBuilder.compileTemplate(SCHEME, SERVER, "rest", "customers", URIBuilder.PLACEHOLDER);
+
+    @Param({ "ASCII", "RESERVED", "LONG", "NON_ASCII" })
+    public InputProfile profile;
+
+    private String[] ids;
+    private int index;
+    private URLBuilder.URLBuilderWithServerAndPath customersBuilder;
+    private ByteBuffer requestLine;
+    private URLWriter writer;
+    private StringBuilder page;
+
+    @Setup
+    public void setup()
+    {
+        ids = profile.createIDs();
+        customersBuilder = URIBuilder.createURL().scheme(SCHEME).server(SERVER).pathElements("rest", "customers");
+        requestLine = ByteBuffer.allocateDirect(4096);
+        writer = new URLWriter();
+        page = new StringBuilder(4096);
+    }
+
+    private String nextID()
+    {
+        index = (index + 1) & (InputProfile.SIZE - 1);
+        return ids[index];
+    }
+
+    @Benchmark
+    public URI uriBuilder()
+    {
+        return URIBuilder.createURL().scheme(SCHEME).server(SERVER).pathElements("rest", "customers", nextID()).build();
+    }
+
+    @Benchmark
+    public String uriBuilderString()
+    {
+        return URIBuilder.createURL().scheme(SCHEME).server(SERVER).pathElements("rest", "customers", nextID()).buildString();
+    }
+
+    @Benchmark
+    public ByteBuffer uriBuilderWriteToBuffer()
+    {
+        requestLine.clear();
+        customersBuilder.pathElements(nextID()).writeTo(requestLine);
+        return requestLine;
+    }
+
+    @Benchmark
+    public ByteBuffer uriBuilderStringToBuffer()
+    {
+        requestLine.clear();
+        requestLine.put(customersBuilder.pathElements(nextID()).build().toString().getBytes(StandardCharsets.US_ASCII));
+        return requestLine;
+    }
+
+    @Benchmark
+    public ByteBuffer urlWriterToBuffer()
+    {
+        requestLine.clear();
+        writer.reset(customersBuilder).segment(nextID()).writeTo(requestLine);
+        return requestLine;
+    }
+
+    /**
+     * Appends a link to a page without creating a string, like a template engine rendering many links.
+     */
+    @Benchmark
+    public StringBuilder urlWriterToPage()
+    {
+        page.setLength(0);
+        page.append(writer.reset(customersBuilder).segment(nextID()));
+        return page;
+    }
+
+    @Benchmark
+    public StringBuilder uriBuilderToPage()
+    {
+        page.setLength(0);
+        page.append(customersBuilder.pathElements(nextID()).buildString());
+        return page;
+    }
+
+    @Benchmark
+    public String uriTemplate()
+    {
+        return CUSTOMER_TEMPLATE.expand(nextID());
+    }
+
+    @Benchmark
+    public String combinePathElements()
+    {
+        return URIBuilder.combinePathElements('/', new String[] { "rest", "customers", nextID() });
+    }
+
+    @Benchmark
+    public String legacyCombinePathElements()
+    {
+        return LegacyURIBuilder.combinePathElements('/', new String[] { "rest", "customers", nextID() });
+    }
+
+    @Benchmark
+    public URI urlEncoderWorkaround()
+    {
+        String encCustomerID = URLEncoder.encode(nextID().replaceAll("\\+", "%2B"), StandardCharsets.UTF_8)
+                        .replaceAll("\\+", "%20").replaceAll("%252B", "+");
+        return URI.create(RESOURCE_PATH + encCustomerID);
+    }
+
+    @Benchmark
+    public URI uriConstructor() throws URISyntaxException
+    {
+        // encodes ' ' and non-ASCII characters, but keeps the '/' of the identifier as separator
+        return new URI(SCHEME, SERVER, "/rest/customers/" + nextID(), null);
+    }
+}
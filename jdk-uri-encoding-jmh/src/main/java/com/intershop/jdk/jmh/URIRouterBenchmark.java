@@ -0,0 +1,90 @@
+package com.intershop.jdk.jmh;
+
+import com.intershop.jdk.URIBuilder;
+import com.intershop.jdk.URIDecoder;
+import com.intershop.jdk.URIRouter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the radix trie router with a list of regular expressions, which are tried one after the other.
+ * The routes have a common prefix and differ in the second path element, like the resources of a REST API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class URIRouterBenchmark
+{
+    @Param({ "1000", "10000" })
+    public int routes;
+
+    private URIRouter<Integer> router;
+    private Pattern[] patterns;
+    private String[] rawPaths;
+    private int index;
+
+    @Setup
+    public void setup()
+    {
+        router = new URIRouter<>();
+        patterns = new Pattern[routes];
+        for (int i = 0; i < routes; i++)
+        {
+            String resource = "resource" + i;
+            router.addRoute(i, "rest", resource, URIBuilder.PLACEHOLDER, "addresses", URIBuilder.PLACEHOLDER);
+            patterns[i] = Pattern.compile("/rest/" + resource + "/([^/]+)/addresses/([^/]+)");
+        }
+        String[] ids = InputProfile.RESERVED.createIDs();
+        Random random = new Random(4711);
+        rawPaths = new String[InputProfile.SIZE];
+        for (int i = 0; i < rawPaths.length; i++)
+        {
+            rawPaths[i] = "/" + URIBuilder.combinePathElements('/',
+                            new String[] { "rest", "resource" + random.nextInt(routes), ids[i], "addresses", "shipping address" });
+        }
+    }
+
+    private String nextRawPath()
+    {
+        index = (index + 1) & (InputProfile.SIZE - 1);
+        return rawPaths[index];
+    }
+
+    @Benchmark
+    public URIRouter.Match<Integer> radixTrie()
+    {
+        return router.match(nextRawPath());
+    }
+
+    @Benchmark
+    public String[] regexList()
+    {
+        String rawPath = nextRawPath();
+        for (Pattern pattern : patterns)
+        {
+            Matcher matcher = pattern.matcher(rawPath);
+            if (matcher.matches())
+            {
+                return new String[] { URIDecoder.decode(matcher.group(1)), URIDecoder.decode(matcher.group(2)) };
+            }
+        }
+        return null;
+    }
+}
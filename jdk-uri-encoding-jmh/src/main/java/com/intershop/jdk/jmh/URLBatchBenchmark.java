@@ -0,0 +1,75 @@
+package com.intershop.jdk.jmh;
+
+import com.intershop.jdk.URIBuilder;
+import com.intershop.jdk.URLBatch;
+import com.intershop.jdk.URLBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the parallel batch creation of product URLs with one builder chain per row.
+ * The parallelism parameter shows the scaling across cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class URLBatchBenchmark
+{
+    @Param({ "1", "2", "4", "8" })
+    public int parallelism;
+
+    @Param({ "ASCII", "RESERVED", "NON_ASCII" })
+    public InputProfile profile;
+
+    private URLBuilder.URLBuilderWithServerAndPath products;
+    private List<String[]> rows;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup()
+    {
+        products = URIBuilder.createURL().scheme("https").server("servername").pathElements("rest", "products");
+        String[] ids = profile.createIDs();
+        rows = new ArrayList<>();
+        for (int i = 0; i < 1_000_000; i++)
+        {
+            rows.add(new String[] { ids[i & (InputProfile.SIZE - 1)], Integer.toString(i) });
+        }
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @Benchmark
+    public List<String> batch()
+    {
+        return URLBatch.buildStrings(products, rows, pool);
+    }
+
+    @Benchmark
+    public List<String> builderPerRow()
+    {
+        List<String> result = new ArrayList<>(rows.size());
+        for (String[] row : rows)
+        {
+            result.add(URIBuilder.createURL().scheme("https").server("servername").pathElements("rest", "products").pathElements(row)
+                                 .buildString());
+        }
+        return result;
+    }
+}
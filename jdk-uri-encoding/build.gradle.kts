@@ -2,9 +2,49 @@ plugins {
     `java-library`
 }
 
+// the Vector API scanner of the URIEncoder is optional at runtime, it is used if the module is enabled
+val vectorModule = listOf("--add-modules", "jdk.incubator.vector")
+
+// the scanner is compiled separately, so only its compilation uses the incubating module
+val vector: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+}
+
+sourceSets.test {
+    runtimeClasspath += vector.output
+}
+
 dependencies {
     implementation("org.slf4j:slf4j-api")
     testImplementation("org.junit.jupiter:junit-jupiter")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
     testRuntimeOnly("ch.qos.logback:logback-classic")
 }
+
+tasks {
+    // a string concatenation must not bootstrap the StringConcatFactory on the first call of the builder
+    withType<JavaCompile>().configureEach {
+        options.compilerArgs.add("-XDstringConcat=inline")
+    }
+    named<JavaCompile>(vector.compileJavaTaskName) {
+        options.compilerArgs.addAll(vectorModule)
+    }
+    jar {
+        from(vector.output)
+    }
+    test {
+        jvmArgs(vectorModule)
+        systemProperty("com.intershop.jdk.uri.test.vectorized", "true")
+    }
+    // the same tests without the module, long values are scanned by the scalar fallback
+    val testScalar by registering(Test::class) {
+        group = "verification"
+        description = "Runs the tests without the module jdk.incubator.vector."
+        testClassesDirs = sourceSets.test.get().output.classesDirs
+        classpath = sourceSets.test.get().runtimeClasspath
+        systemProperty("com.intershop.jdk.uri.test.vectorized", "false")
+    }
+    check {
+        dependsOn(testScalar)
+    }
+}
@@ -0,0 +1,473 @@
+package com.intershop.jdk;
+
+/**
+ * URI in the syntax based normal form of RFC 3986 section 6.2.2, e.g. as key of a cache or a CDN purge list.
+ * <ul>
+ * <li>scheme and host are converted to lower case</li>
+ * <li>hex digits of percent-encodings are converted to upper case</li>
+ * <li>percent-encoded unreserved characters are decoded</li>
+ * <li>dot-segments are removed from the path</li>
+ * </ul>
+ * The hash is calculated once, so equivalent URIs compare and hash equal without parsing them again.
+ * A URI that is in normal form already is not copied, the URIs created by the {@link URIBuilder} are recognized
+ * by their components without scanning the string.
+ */
+public final class CanonicalURI
+{
+    /**
+     * Characters that are not encoded, if they are percent-encoded the escape is decoded.
+     */
+    private static final boolean[] UNRESERVED = new boolean[128];
+
+    /**
+     * Characters of a scheme behind the first letter.
+     */
+    private static final boolean[] SCHEME = new boolean[128];
+
+    static
+    {
+        String alphaDigit = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+        for (int i = 0; i < alphaDigit.length(); i++)
+        {
+            UNRESERVED[alphaDigit.charAt(i)] = true;
+            SCHEME[alphaDigit.charAt(i)] = true;
+        }
+        UNRESERVED['-'] = true;
+        UNRESERVED['.'] = true;
+        UNRESERVED['_'] = true;
+        UNRESERVED['~'] = true;
+        SCHEME['+'] = true;
+        SCHEME['-'] = true;
+        SCHEME['.'] = true;
+    }
+
+    private final String string;
+    private final int hash;
+
+    private CanonicalURI(String string)
+    {
+        this.string = string;
+        this.hash = string.hashCode();
+    }
+
+    /**
+     * @param uri encoded URI or relative reference
+     * @return URI in normal form
+     * @throws IllegalArgumentException if the URI contains malformed escapes
+     */
+    public static CanonicalURI of(String uri)
+    {
+        return new CanonicalURI(canonicalize(uri));
+    }
+
+    /**
+     * The components of a URI created by the URIBuilder are checked, the string is normalized only if the scheme or
+     * server contains upper case letters, a path element is a dot-segment or a form encoded query contains an escaped '~'.
+     * A resolved URI contains escapes of the reference, it is always normalized.
+     * @param uri encoded URI
+     * @return URI in normal form
+     */
+    public static CanonicalURI of(EncodedURI uri)
+    {
+        String string = uri.toString();
+        if (uri.isBuilt() && isLowerCase(uri.getScheme()) && isLowerCase(uri.getRawAuthority()) && !hasDotSegment(uri.getPathElements())
+                        && !containsEscapedTilde(uri.getRawQuery()))
+        {
+            return new CanonicalURI(string);
+        }
+        return new CanonicalURI(canonicalize(string));
+    }
+
+    private static boolean isLowerCase(String value)
+    {
+        if (value != null)
+        {
+            for (int i = 0; i < value.length(); i++)
+            {
+                char ch = value.charAt(i);
+                // an escape of the authority is checked by the canonicalization
+                if ((ch >= 'A' && ch <= 'Z') || ch == '%')
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasDotSegment(String[] pathElements)
+    {
+        for (String element : pathElements)
+        {
+            if (element.equals(".") || element.equals(".."))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The form encoder is the only encoder of the URIBuilder that escapes an unreserved character.
+     */
+    private static boolean containsEscapedTilde(String rawQuery)
+    {
+        return rawQuery != null && rawQuery.contains("%7E");
+    }
+
+    /**
+     * Converts the URI into the syntax based normal form of RFC 3986.
+     * @param uri encoded URI or relative reference
+     * @return URI in normal form, the given instance if it is in normal form already
+     * @throws IllegalArgumentException if the URI contains malformed escapes
+     */
+    public static String canonicalize(String uri)
+    {
+        int l = uri.length();
+        int schemeEnd = schemeEnd(uri);
+        int pathStart = schemeEnd + 1;
+        int hostStart = pathStart;
+        if (uri.startsWith("//", pathStart))
+        {
+            int authorityStart = pathStart + 2;
+            pathStart = indexOfAny(uri, "/?#", authorityStart, l);
+            // the user information is case-sensitive
+            hostStart = Math.max(authorityStart, uri.lastIndexOf('@', pathStart - 1) + 1);
+        }
+        int pathEnd = indexOfAny(uri, "?#", pathStart, l);
+        // a relative-path reference keeps the ".." segments above its first segment
+        boolean relativePath = schemeEnd < 0 && pathStart == 0 && pathEnd > 0 && uri.charAt(0) != '/';
+        if (isCanonical(uri, schemeEnd, hostStart, pathStart, pathEnd, relativePath))
+        {
+            return uri;
+        }
+        // decoding and removing dot-segments never extends the URI, only the "./" before a relative first segment
+        // with a colon is added
+        char[] target = new char[l + 2];
+        int pos = normalize(uri, 0, schemeEnd, true, target, 0);
+        pos = normalize(uri, Math.max(0, schemeEnd), hostStart, false, target, pos);
+        pos = normalize(uri, hostStart, pathStart, true, target, pos);
+        int normalizedPathStart = pos;
+        pos = normalize(uri, pathStart, pathEnd, false, target, pos);
+        pos = relativePath ? removeRelativeDotSegments(target, normalizedPathStart, pos)
+                        : removeDotSegments(target, normalizedPathStart, pos);
+        pos = normalize(uri, pathEnd, l, false, target, pos);
+        return new String(target, 0, pos);
+    }
+
+    /**
+     * Normalizes the percent-encodings of a part of the URI.
+     * @param lowerCase true for case-insensitive components, the letters are converted to lower case
+     * @return position after the last written character
+     */
+    private static int normalize(String uri, int start, int end, boolean lowerCase, char[] target, int pos)
+    {
+        for (int i = start; i < end; i++)
+        {
+            char ch = uri.charAt(i);
+            if (ch == '%')
+            {
+                int value = URIDecoder.decodeByte(uri, i, uri.length());
+                if (value < 128 && UNRESERVED[value])
+                {
+                    target[pos++] = lowerCase ? toLowerCase((char) value) : (char) value;
+                }
+                else
+                {
+                    target[pos++] = '%';
+                    target[pos++] = Character.toUpperCase(uri.charAt(i + 1));
+                    target[pos++] = Character.toUpperCase(uri.charAt(i + 2));
+                }
+                i += 2;
+            }
+            else
+            {
+                target[pos++] = lowerCase ? toLowerCase(ch) : ch;
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * @return index of the ':' behind the scheme, -1 for a relative reference
+     */
+    static int schemeEnd(String uri)
+    {
+        int l = uri.length();
+        if (l == 0 || !isAlpha(uri.charAt(0)))
+        {
+            return -1;
+        }
+        for (int i = 1; i < l; i++)
+        {
+            char ch = uri.charAt(i);
+            if (ch == ':')
+            {
+                return i;
+            }
+            if (ch >= 128 || !SCHEME[ch])
+            {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isAlpha(char ch)
+    {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z');
+    }
+
+    private static char toLowerCase(char ch)
+    {
+        return ch >= 'A' && ch <= 'Z' ? (char) (ch + ('a' - 'A')) : ch;
+    }
+
+    static int indexOfAny(String value, String characters, int from, int end)
+    {
+        for (int i = from; i < end; i++)
+        {
+            if (characters.indexOf(value.charAt(i)) >= 0)
+            {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Checks the URI without copying it.
+     * @param relativePath true for a relative-path reference, its leading ".." segments are in normal form
+     * @return true if the URI is in normal form
+     */
+    private static boolean isCanonical(String uri, int schemeEnd, int hostStart, int pathStart, int pathEnd, boolean relativePath)
+    {
+        int l = uri.length();
+        int segmentStart = pathStart;
+        boolean leading = relativePath;
+        for (int i = 0; i < l; i++)
+        {
+            char ch = uri.charAt(i);
+            if (ch >= 'A' && ch <= 'Z' && (i < schemeEnd || (i >= hostStart && i < pathStart)))
+            {
+                return false;
+            }
+            if (ch == '%')
+            {
+                int value = URIDecoder.decodeByte(uri, i, l);
+                if ((value < 128 && UNRESERVED[value]) || Character.isLowerCase(uri.charAt(i + 1))
+                                || Character.isLowerCase(uri.charAt(i + 2)))
+                {
+                    return false;
+                }
+                i += 2;
+            }
+            else if (i >= pathStart && i <= pathEnd && (i == pathEnd || ch == '/'))
+            {
+                leading = leading && isDotDot(uri, segmentStart, i);
+                if (!leading && isDotSegment(uri, segmentStart, i))
+                {
+                    return false;
+                }
+                segmentStart = i + 1;
+            }
+        }
+        return pathEnd < l || (leading && isDotDot(uri, segmentStart, l)) || !isDotSegment(uri, segmentStart, l);
+    }
+
+    private static boolean isDotDot(String uri, int start, int end)
+    {
+        return end - start == 2 && uri.startsWith("..", start);
+    }
+
+    private static boolean isDotSegment(String uri, int start, int end)
+    {
+        return (end - start == 1 && uri.charAt(start) == '.') || (end - start == 2 && uri.startsWith("..", start));
+    }
+
+    /**
+     * Removes the dot-segments of a path in place (RFC 3986 section 5.2.4).
+     * @param path characters of the path
+     * @param start index of the first character of the path
+     * @param end index after the last character of the path
+     * @return index after the last character of the path without dot-segments
+     */
+    static int removeDotSegments(char[] path, int start, int end)
+    {
+        int in = start;
+        int out = start;
+        while (in < end)
+        {
+            if (startsWith(path, in, end, "../"))
+            {
+                in += 3;
+            }
+            else if (startsWith(path, in, end, "./"))
+            {
+                in += 2;
+            }
+            else if (startsWith(path, in, end, "/./"))
+            {
+                in += 2;
+            }
+            else if (in + 2 == end && startsWith(path, in, end, "/."))
+            {
+                path[out++] = '/';
+                in = end;
+            }
+            else if (startsWith(path, in, end, "/../"))
+            {
+                in += 3;
+                out = lastSegmentStart(path, start, out);
+            }
+            else if (in + 3 == end && startsWith(path, in, end, "/.."))
+            {
+                out = lastSegmentStart(path, start, out);
+                path[out++] = '/';
+                in = end;
+            }
+            else if ((in + 1 == end && path[in] == '.') || (in + 2 == end && startsWith(path, in, end, "..")))
+            {
+                in = end;
+            }
+            else
+            {
+                // move the first segment including its leading '/' to the output
+                do
+                {
+                    path[out++] = path[in++];
+                }
+                while (in < end && path[in] != '/');
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Removes the dot-segments of a relative path in place. Unlike RFC 3986 section 5.2.4, which is defined for the
+     * merged path of a resolved URI, a ".." above the first segment is kept, so "a/../../b" stays relative as "../b".
+     * @param path characters of the path, the path doesn't start with '/'; with room for two more characters behind the end
+     * @param start index of the first character of the path
+     * @param end index after the last character of the path
+     * @return index after the last character of the path without dot-segments
+     */
+    static int removeRelativeDotSegments(char[] path, int start, int end)
+    {
+        int in = start;
+        int out = start;
+        // end of the kept ".." segments in the output
+        int kept = start;
+        while (in < end)
+        {
+            int segmentEnd = in;
+            while (segmentEnd < end && path[segmentEnd] != '/')
+            {
+                segmentEnd++;
+            }
+            int next = Math.min(end, segmentEnd + 1);
+            if (segmentEnd - in == 1 && path[in] == '.')
+            {
+                in = next;
+                continue;
+            }
+            if (segmentEnd - in == 2 && path[in] == '.' && path[in + 1] == '.' && out > kept)
+            {
+                // the output ends with a '/', remove its last segment
+                out--;
+                while (out > kept && path[out - 1] != '/')
+                {
+                    out--;
+                }
+                in = next;
+                continue;
+            }
+            boolean dotDot = segmentEnd - in == 2 && path[in] == '.' && path[in + 1] == '.';
+            while (in < next)
+            {
+                path[out++] = path[in++];
+            }
+            if (dotDot)
+            {
+                kept = out;
+            }
+        }
+        if (out == start && end > start)
+        {
+            // the path was dot-segments only, it refers to the current directory
+            path[out++] = '.';
+        }
+        else if (kept == start && isFirstSegmentWithColon(path, start, out))
+        {
+            // "./" keeps the colon of the first segment from being read as the end of a scheme
+            System.arraycopy(path, start, path, start + 2, out - start);
+            path[start] = '.';
+            path[start + 1] = '/';
+            out += 2;
+        }
+        return out;
+    }
+
+    private static boolean isFirstSegmentWithColon(char[] path, int start, int end)
+    {
+        for (int i = start; i < end && path[i] != '/'; i++)
+        {
+            if (path[i] == ':')
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return index of the '/' before the last segment of the output, the start if the output has one segment only
+     */
+    private static int lastSegmentStart(char[] path, int start, int out)
+    {
+        for (int i = out - 1; i >= start; i--)
+        {
+            if (path[i] == '/')
+            {
+                return i;
+            }
+        }
+        return start;
+    }
+
+    private static boolean startsWith(char[] path, int from, int end, String prefix)
+    {
+        if (end - from < prefix.length())
+        {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++)
+        {
+            if (path[from + i] != prefix.charAt(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return URI in normal form
+     */
+    @Override
+    public String toString()
+    {
+        return string;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        return obj instanceof CanonicalURI other && hash == other.hash && string.equals(other.string);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hash;
+    }
+}
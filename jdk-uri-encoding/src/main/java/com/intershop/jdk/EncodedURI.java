@@ -0,0 +1,182 @@
+package com.intershop.jdk;
+
+import java.net.URI;
+
+/**
+ * Immutable result of the URL builder, the encoded URI string and its components.
+ *
+ * The builder knows the components already, so the string is not parsed again like {@link URI#create(String)} does.
+ * The {@link URI} is created on first request only.
+ */
+public final class EncodedURI
+{
+    private final String string;
+    private final String scheme;
+    private final String authority;
+    private final int pathStart;
+    /**
+     * Start of the query behind the '?', -1 without query
+     */
+    private final int queryStart;
+    /**
+     * Start of the fragment behind the '#', -1 without fragment
+     */
+    private final int fragmentStart;
+    /**
+     * Decoded path elements, decoded on first request for a resolved URI
+     */
+    private volatile String[] pathElements;
+    private volatile URI uri;
+    /**
+     * true if the URI was encoded by the builder from unencoded components, false for a resolved URI
+     */
+    private final boolean built;
+
+    EncodedURI(String string, String scheme, String authority, int pathStart, String[] pathElements)
+    {
+        this(string, scheme, authority, pathStart, -1, -1, pathElements, true);
+    }
+
+    EncodedURI(String string, String scheme, String authority, int pathStart, int queryStart, int fragmentStart, String[] pathElements,
+                    boolean built)
+    {
+        this.string = string;
+        this.scheme = scheme;
+        this.authority = authority;
+        this.pathStart = pathStart;
+        this.queryStart = queryStart;
+        this.fragmentStart = fragmentStart;
+        this.pathElements = pathElements;
+        this.built = built;
+    }
+
+    /**
+     * @return true if the URI was encoded by the builder, its escapes are upper case and unreserved characters are not escaped
+     */
+    boolean isBuilt()
+    {
+        return built;
+    }
+
+    /**
+     * @return scheme or null for relative references
+     */
+    public String getScheme()
+    {
+        return scheme;
+    }
+
+    /**
+     * @return authority (server) or null for relative references
+     */
+    public String getRawAuthority()
+    {
+        return authority;
+    }
+
+    /**
+     * @return encoded path
+     */
+    public String getRawPath()
+    {
+        int end = queryStart >= 0 ? queryStart - 1 : fragmentStart >= 0 ? fragmentStart - 1 : string.length();
+        return string.substring(pathStart, end);
+    }
+
+    /**
+     * @return encoded query or null
+     */
+    public String getRawQuery()
+    {
+        if (queryStart < 0)
+        {
+            return null;
+        }
+        return string.substring(queryStart, fragmentStart >= 0 ? fragmentStart - 1 : string.length());
+    }
+
+    /**
+     * @return encoded fragment or null
+     */
+    public String getRawFragment()
+    {
+        return fragmentStart < 0 ? null : string.substring(fragmentStart);
+    }
+
+    /**
+     * @return decoded path elements
+     */
+    public String[] getPathElements()
+    {
+        String[] result = pathElements;
+        if (result == null)
+        {
+            result = URIDecoder.decodeRawPath(getRawPath());
+            pathElements = result;
+        }
+        return result.clone();
+    }
+
+    /**
+     * Resolves a relative reference against this URI (RFC 3986 section 5.2), e.g. a link of an HTML page.
+     * Unlike {@link URI#resolve(String)}, the components of this URI are not parsed again and encoded slashes
+     * are kept.
+     * <pre>
+     * "https://servername/rest/customers/2024%2F1234" + "../orders?page=2" = "https://servername/rest/orders?page=2"
+     * </pre>
+     * @param reference encoded URI reference
+     * @return target URI
+     */
+    public EncodedURI resolve(String reference)
+    {
+        return URIResolver.resolve(this, reference);
+    }
+
+    /**
+     * Resolves the path of a relative URL builder against this URI, the already encoded path is reused.
+     * A relative path replaces the last path element of this URI, an absolute path (see
+     * {@link URIBuilder#createAbsoluteURL()}) replaces the path. The dot-segments "." and ".." are removed.
+     * @param relative builder created by {@link URIBuilder#createRelativeURL()} or {@link URIBuilder#createAbsoluteURL()}
+     * @return target URI
+     * @throws IllegalArgumentException if the builder has a scheme or server
+     */
+    public EncodedURI resolve(URLBuilder.URLBuilderWithServerAndPath relative)
+    {
+        return URIResolver.resolvePath(this, relative.encodeRelativePath());
+    }
+
+    /**
+     * @return URI, created once on first call
+     */
+    public URI toURI()
+    {
+        URI result = uri;
+        if (result == null)
+        {
+            result = URI.create(string);
+            uri = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return encoded URI
+     */
+    @Override
+    public String toString()
+    {
+        return string;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        return obj instanceof EncodedURI other && string.equals(other.string);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return string.hashCode();
+    }
+}
@@ -0,0 +1,229 @@
+package com.intershop.jdk;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded concurrent cache of encoded segments in front of an encoder, for the few ids used by most URLs
+ * (category names, popular SKUs, locales).
+ *
+ * Lookups are lock free. Inserts are distributed over stripes, each stripe has its own lock and evicts with a
+ * CLOCK policy that counts the accesses of an entry, so frequently used segments stay and one-time segments go first.
+ * Segments that need no escaping are not cached, the segment itself is the encoded value.
+ * <pre>
+ * URIBuilder.setPathSegmentCache(new SegmentCache(URIEncoder.PATH_SEGMENT, 10_000));
+ * </pre>
+ */
+public final class SegmentCache
+{
+    /**
+     * Maximal access count of an entry, an entry survives that many passes of the clock hand.
+     */
+    private static final int MAX_FREQUENCY = 3;
+
+    /**
+     * Minimal number of entries per stripe.
+     */
+    private static final int MIN_STRIPE_CAPACITY = 16;
+
+    private final URIEncoder encoder;
+    private final int capacity;
+    private final ConcurrentHashMap<String, Entry> entries;
+    private final Stripe[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder bypasses = new LongAdder();
+
+    /**
+     * Creates a cache with a number of stripes depending on the available processors.
+     * @param encoder encoder of the segments
+     * @param capacity maximal number of cached segments
+     */
+    public SegmentCache(URIEncoder encoder, int capacity)
+    {
+        this(encoder, capacity, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param encoder encoder of the segments
+     * @param capacity maximal number of cached segments
+     * @param concurrencyLevel expected number of concurrent inserts, rounded to a power of two
+     */
+    public SegmentCache(URIEncoder encoder, int capacity, int concurrencyLevel)
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.encoder = encoder;
+        this.capacity = capacity;
+        int stripeCount = Math.min(concurrencyLevel <= 1 ? 1 : Integer.highestOneBit((concurrencyLevel - 1) << 1),
+                        Integer.highestOneBit(Math.max(1, capacity / MIN_STRIPE_CAPACITY)));
+        stripes = new Stripe[stripeCount];
+        int stripeCapacity = capacity / stripeCount;
+        for (int i = 0; i < stripeCount; i++)
+        {
+            // distribute the remainder, so that the capacities sum up to the capacity of the cache
+            stripes[i] = new Stripe(stripeCapacity + (i < capacity % stripeCount ? 1 : 0));
+        }
+        entries = new ConcurrentHashMap<>(capacity * 4 / 3 + 1, 0.75f, stripeCount);
+    }
+
+    /**
+     * @return encoder of the segments
+     */
+    public URIEncoder getEncoder()
+    {
+        return encoder;
+    }
+
+    /**
+     * @return maximal number of cached segments
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Encodes the segment or returns the cached encoded segment.
+     * @param segment unencoded segment
+     * @return encoded segment
+     */
+    public String encode(String segment)
+    {
+        if (encoder.firstToEscape(segment) == segment.length())
+        {
+            bypasses.increment();
+            return segment;
+        }
+        Entry entry = entries.get(segment);
+        if (entry != null)
+        {
+            entry.touch();
+            hits.increment();
+            return entry.encoded;
+        }
+        misses.increment();
+        String encoded = encoder.encode(segment);
+        stripes[stripeIndex(segment)].add(new Entry(segment, encoded));
+        return encoded;
+    }
+
+    private int stripeIndex(String segment)
+    {
+        int h = segment.hashCode();
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+
+    /**
+     * @return number of cached segments
+     */
+    public int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * @return number of segments found in the cache
+     */
+    public long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of segments encoded and added to the cache
+     */
+    public long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of segments removed to keep the capacity
+     */
+    public long getEvictionCount()
+    {
+        return evictions.sum();
+    }
+
+    /**
+     * @return number of segments that needed no escaping and bypassed the cache
+     */
+    public long getBypassCount()
+    {
+        return bypasses.sum();
+    }
+
+    private static final class Entry
+    {
+        private final String segment;
+        private final String encoded;
+        /**
+         * Access count, updated without synchronization - a lost update only changes the eviction order.
+         */
+        private int frequency;
+
+        Entry(String segment, String encoded)
+        {
+            this.segment = segment;
+            this.encoded = encoded;
+        }
+
+        void touch()
+        {
+            if (frequency < MAX_FREQUENCY)
+            {
+                frequency++;
+            }
+        }
+    }
+
+    /**
+     * Part of the cache with its own lock and clock.
+     */
+    private final class Stripe
+    {
+        private final Entry[] slots;
+        private int size;
+        private int hand;
+
+        Stripe(int capacity)
+        {
+            slots = new Entry[capacity];
+        }
+
+        synchronized void add(Entry entry)
+        {
+            // all inserts of a segment are done by the same stripe, so the check is consistent with the slots
+            if (entries.putIfAbsent(entry.segment, entry) != null)
+            {
+                return;
+            }
+            if (size < slots.length)
+            {
+                slots[size++] = entry;
+                return;
+            }
+            while (true)
+            {
+                Entry candidate = slots[hand];
+                if (candidate.frequency > 0)
+                {
+                    candidate.frequency--;
+                    hand = (hand + 1) % slots.length;
+                }
+                else
+                {
+                    entries.remove(candidate.segment, candidate);
+                    evictions.increment();
+                    slots[hand] = entry;
+                    hand = (hand + 1) % slots.length;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.intershop.jdk;
+
+import java.net.IDN;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Validation and conversion of the authority of a URL (RFC 3986 section 3.2).
+ *
+ * IPv4 and IPv6 literals are validated by a parser instead of regular expressions. Internationalized host names
+ * are converted to Punycode with {@link IDN#toASCII(String)}, the conversion is memoized, because it is expensive
+ * compared to the encoding of a path. ASCII host names are converted to lower case only.
+ */
+final class URIAuthority
+{
+    /**
+     * Maximal number of memoized IDN conversions, the memo is cleared if it's full.
+     */
+    private static final int MAX_MEMOIZED_HOSTS = 1024;
+
+    private static final int MAX_PORT = 0xFFFF;
+
+    /**
+     * Characters of a registered name (unreserved and sub-delims).
+     */
+    private static final boolean[] REG_NAME = new boolean[128];
+
+    static
+    {
+        String regName = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-._~!$&'()*+,;=";
+        for (int i = 0; i < regName.length(); i++)
+        {
+            REG_NAME[regName.charAt(i)] = true;
+        }
+    }
+
+    private static final ConcurrentHashMap<String, String> IDN_HOSTS = new ConcurrentHashMap<>();
+
+    private URIAuthority()
+    {
+    }
+
+    /**
+     * Converts a host into the form used by a URL.
+     * <ul>
+     * <li>IPv6 address, with or without brackets: validated, lower case in brackets</li>
+     * <li>IPv4 address, digits with dots: validated</li>
+     * <li>registered name: lower case, internationalized names are converted to Punycode</li>
+     * </ul>
+     * @param host host name or IP address
+     * @return host as part of a URL
+     * @throws IllegalArgumentException if the host is not valid
+     */
+    static String toURLHost(String host)
+    {
+        int l = host.length();
+        if (l == 0)
+        {
+            throw new IllegalArgumentException("Host must not be empty");
+        }
+        if (host.charAt(0) == '[')
+        {
+            if (host.charAt(l - 1) != ']' || !isIPv6(host, 1, l - 1))
+            {
+                throw new IllegalArgumentException("Invalid IPv6 address: " + host);
+            }
+            return host.toLowerCase(Locale.ROOT);
+        }
+        if (host.indexOf(':') >= 0)
+        {
+            if (!isIPv6(host, 0, l))
+            {
+                throw new IllegalArgumentException("Invalid IPv6 address: " + host);
+            }
+            return "[" + host.toLowerCase(Locale.ROOT) + "]";
+        }
+        if (isDottedDigits(host))
+        {
+            if (!isIPv4(host, 0, l))
+            {
+                throw new IllegalArgumentException("Invalid IPv4 address: " + host);
+            }
+            return host;
+        }
+        if (isRegName(host))
+        {
+            return host.toLowerCase(Locale.ROOT);
+        }
+        String result = IDN_HOSTS.get(host);
+        if (result == null)
+        {
+            result = toASCII(host);
+            if (IDN_HOSTS.size() >= MAX_MEMOIZED_HOSTS)
+            {
+                IDN_HOSTS.clear();
+            }
+            IDN_HOSTS.put(host, result);
+        }
+        return result;
+    }
+
+    private static String toASCII(String host)
+    {
+        String ascii;
+        try
+        {
+            ascii = IDN.toASCII(host);
+        }
+        catch(IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException("Invalid host name: " + host, e);
+        }
+        if (!isRegName(ascii))
+        {
+            throw new IllegalArgumentException("Invalid host name: " + host);
+        }
+        return ascii.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isRegName(String host)
+    {
+        for (int i = 0; i < host.length(); i++)
+        {
+            char ch = host.charAt(i);
+            if (ch >= 128 || !REG_NAME[ch])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the host looks like an IPv4 address: digits and at least one dot, digits only are a registered name
+     */
+    private static boolean isDottedDigits(String host)
+    {
+        boolean dotted = false;
+        for (int i = 0; i < host.length(); i++)
+        {
+            char ch = host.charAt(i);
+            if (ch == '.')
+            {
+                dotted = true;
+            }
+            else if (ch < '0' || ch > '9')
+            {
+                return false;
+            }
+        }
+        return dotted;
+    }
+
+    /**
+     * IPv4address = dec-octet "." dec-octet "." dec-octet "." dec-octet, without leading zeros
+     * @param start index of the first character
+     * @param end index after the last character
+     * @return true if the characters are an IPv4 address
+     */
+    static boolean isIPv4(String host, int start, int end)
+    {
+        int octets = 0;
+        int i = start;
+        while (i <= end)
+        {
+            int octetStart = i;
+            int value = 0;
+            while (i < end && host.charAt(i) >= '0' && host.charAt(i) <= '9')
+            {
+                value = value * 10 + host.charAt(i) - '0';
+                i++;
+                if (value > 255)
+                {
+                    return false;
+                }
+            }
+            int digits = i - octetStart;
+            if (digits == 0 || (digits > 1 && host.charAt(octetStart) == '0'))
+            {
+                return false;
+            }
+            octets++;
+            if (i == end)
+            {
+                return octets == 4;
+            }
+            if (host.charAt(i) != '.' || octets == 4)
+            {
+                return false;
+            }
+            i++;
+        }
+        return false;
+    }
+
+    /**
+     * IPv6address of RFC 3986: eight groups of up to four hex digits, the last two groups can be an IPv4 address,
+     * one sequence of groups can be replaced by "::".
+     * @param start index of the first character
+     * @param end index after the last character
+     * @return true if the characters are an IPv6 address
+     */
+    static boolean isIPv6(String host, int start, int end)
+    {
+        int groups = 0;
+        boolean compressed = false;
+        int i = start;
+        if (host.startsWith("::", i))
+        {
+            compressed = true;
+            i += 2;
+            if (i == end)
+            {
+                return true;
+            }
+        }
+        while (i < end)
+        {
+            int groupStart = i;
+            while (i < end && i - groupStart < 5 && Character.digit(host.charAt(i), 16) >= 0 && host.charAt(i) < 128)
+            {
+                i++;
+            }
+            if (i < end && host.charAt(i) == '.')
+            {
+                // embedded IPv4 address as last two groups
+                return (compressed ? groups <= 5 : groups == 6) && isIPv4(host, groupStart, end);
+            }
+            int digits = i - groupStart;
+            if (digits == 0 || digits > 4)
+            {
+                return false;
+            }
+            groups++;
+            if (i == end)
+            {
+                break;
+            }
+            if (host.charAt(i) != ':')
+            {
+                return false;
+            }
+            i++;
+            if (i < end && host.charAt(i) == ':')
+            {
+                if (compressed)
+                {
+                    return false;
+                }
+                compressed = true;
+                i++;
+                if (i == end)
+                {
+                    break;
+                }
+            }
+            else if (i == end)
+            {
+                // trailing single colon
+                return false;
+            }
+        }
+        return compressed ? groups <= 7 : groups == 8;
+    }
+
+    /**
+     * @param userInfo unencoded user information or null
+     * @param host converted host, see {@link #toURLHost(String)}
+     * @param port port or -1 for the default port of the scheme
+     * @return authority of a URL
+     */
+    static String authority(String userInfo, String host, int port)
+    {
+        if (userInfo == null && port < 0)
+        {
+            return host;
+        }
+        StringBuilder b = new StringBuilder(host.length() + 16);
+        if (userInfo != null)
+        {
+            URIEncoder.USERINFO.encode(userInfo, b).append('@');
+        }
+        b.append(host);
+        if (port >= 0)
+        {
+            b.append(':').append(port);
+        }
+        return b.toString();
+    }
+
+    /**
+     * @param port port number
+     * @return the given port
+     * @throws IllegalArgumentException if the port is out of range
+     */
+    static int checkPort(int port)
+    {
+        if (port < 0 || port > MAX_PORT)
+        {
+            throw new IllegalArgumentException("Port must be between 0 and 65535: " + port);
+        }
+        return port;
+    }
+}
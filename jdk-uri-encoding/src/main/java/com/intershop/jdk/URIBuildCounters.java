@@ -0,0 +1,152 @@
+package com.intershop.jdk;
+
+import org.slf4j.Logger;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the URL builder and the encoder, e.g. to prove the cost of URL building in production.
+ * <pre>
+ * URIBuildCounters counters = new URIBuildCounters();
+ * URIBuilder.setBuildListener(counters);
+ * ...
+ * counters.log(LOGGER);
+ * </pre>
+ */
+public final class URIBuildCounters implements URIBuildListener
+{
+    private final LongAdder builds = new LongAdder();
+    private final LongAdder builtSegments = new LongAdder();
+    private final LongAdder builtLength = new LongAdder();
+    private final LongAdder encodings = new LongAdder();
+    private final LongAdder inputLength = new LongAdder();
+    private final LongAdder outputLength = new LongAdder();
+    private final LongAdder escapedBytes = new LongAdder();
+
+    @Override
+    public void built(int segmentCount, int length)
+    {
+        builds.increment();
+        builtSegments.add(segmentCount);
+        builtLength.add(length);
+    }
+
+    @Override
+    public void encoded(int inputLength, int outputLength, int escapedBytes)
+    {
+        encodings.increment();
+        this.inputLength.add(inputLength);
+        this.outputLength.add(outputLength);
+        this.escapedBytes.add(escapedBytes);
+    }
+
+    /**
+     * @return number of built URLs
+     */
+    public long getBuildCount()
+    {
+        return builds.sum();
+    }
+
+    /**
+     * @return number of path elements of the built URLs
+     */
+    public long getBuiltSegmentCount()
+    {
+        return builtSegments.sum();
+    }
+
+    /**
+     * @return number of characters of the built URLs
+     */
+    public long getBuiltLength()
+    {
+        return builtLength.sum();
+    }
+
+    /**
+     * @return number of encoded values, values served by the segment cache are not encoded
+     */
+    public long getEncodeCount()
+    {
+        return encodings.sum();
+    }
+
+    /**
+     * @return number of unencoded characters
+     */
+    public long getInputLength()
+    {
+        return inputLength.sum();
+    }
+
+    /**
+     * @return number of encoded characters (bytes, the encoded values are ASCII)
+     */
+    public long getOutputLength()
+    {
+        return outputLength.sum();
+    }
+
+    /**
+     * @return number of UTF-8 bytes that are percent-encoded
+     */
+    public long getEscapedBytes()
+    {
+        return escapedBytes.sum();
+    }
+
+    /**
+     * @return percent-encoded bytes per unencoded character, 0 for plain ASCII identifiers
+     */
+    public double getEscapeRatio()
+    {
+        long input = inputLength.sum();
+        return input == 0 ? 0 : (double) escapedBytes.sum() / input;
+    }
+
+    /**
+     * @return hits of the path segment cache of the URIBuilder, 0 without cache
+     */
+    public long getCacheHitCount()
+    {
+        SegmentCache cache = URIBuilder.getPathSegmentCache();
+        return cache == null ? 0 : cache.getHitCount();
+    }
+
+    /**
+     * Resets the counters, the cache hits are counted by the cache.
+     */
+    public void reset()
+    {
+        builds.reset();
+        builtSegments.reset();
+        builtLength.reset();
+        encodings.reset();
+        inputLength.reset();
+        outputLength.reset();
+        escapedBytes.reset();
+    }
+
+    /**
+     * Logs the counters with level info.
+     * @param logger target logger
+     */
+    public void log(Logger logger)
+    {
+        if (logger.isInfoEnabled())
+        {
+            logger.info("{}", this);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "URI builds: " + getBuildCount() + ", segments: " + getBuiltSegmentCount() + ", length: " + getBuiltLength()
+                        + ", encodings: " + getEncodeCount() + ", input: " + getInputLength() + ", output: " + getOutputLength()
+                        + ", escaped bytes: " + getEscapedBytes() + String.format(Locale.ROOT, ", escape ratio: %.4f", getEscapeRatio())
+                        + ", cache hits: " + getCacheHitCount();
+    }
+}
@@ -0,0 +1,57 @@
+package com.intershop.jdk;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of the URL builder, one event per built URL.
+ * The event is disabled by default, the stack trace shows which code builds the URL.
+ */
+@Name("com.intershop.jdk.URIBuild")
+@Label("URI Build")
+@Description("Creation of an encoded URL by the URL builder")
+@Category({ "Intershop", "URI" })
+@Enabled(false)
+final class URIBuildEvent extends Event
+{
+    @Label("Segment Count")
+    @Description("Number of path elements")
+    int segmentCount;
+
+    @Label("Length")
+    @Description("Number of characters of the encoded URL")
+    int length;
+
+    /**
+     * Creates the event and starts the timing, if the event is enabled.
+     * @return event to commit after building
+     */
+    static URIBuildEvent start()
+    {
+        URIBuildEvent event = new URIBuildEvent();
+        if (event.isEnabled())
+        {
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Commits the event, if it is enabled and exceeds the threshold.
+     * @param segmentCount number of path elements
+     * @param length number of characters of the encoded URL
+     */
+    void end(int segmentCount, int length)
+    {
+        if (shouldCommit())
+        {
+            this.segmentCount = segmentCount;
+            this.length = length;
+            commit();
+        }
+    }
+}
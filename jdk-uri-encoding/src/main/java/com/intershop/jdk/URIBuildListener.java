@@ -0,0 +1,29 @@
+package com.intershop.jdk;
+
+/**
+ * Listener of the URL builder and the encoder, registered with {@link URIBuilder#setBuildListener(URIBuildListener)}.
+ * The methods are called by the building thread, so an implementation must be thread-safe and fast.
+ *
+ * @see URIBuildCounters
+ */
+public interface URIBuildListener
+{
+    /**
+     * Called after a URL was built by {@link URLBuilder}.
+     * @param segmentCount number of path elements
+     * @param length number of characters of the encoded URL
+     */
+    default void built(int segmentCount, int length)
+    {
+    }
+
+    /**
+     * Called after a value was encoded by {@link URIEncoder}.
+     * @param inputLength number of characters of the unencoded value
+     * @param outputLength number of characters of the encoded value
+     * @param escapedBytes number of UTF-8 bytes that are percent-encoded
+     */
+    default void encoded(int inputLength, int outputLength, int escapedBytes)
+    {
+    }
+}
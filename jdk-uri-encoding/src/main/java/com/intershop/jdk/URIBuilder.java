@@ -1,18 +1,25 @@
 package com.intershop.jdk;
 
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
-import java.util.stream.Collectors;
-
 /**
  * This class provides easy possibility to create kinds two kinds of URI, URL and URN.
  */
 public class URIBuilder
 {
     /**
-     * The hexadecimal characters in upper case.
+     * Marks the variable path elements of a template, see {@link #compileTemplate(String, String, String...)}.
+     * The placeholder is identified by identity, an equal string is a constant path element.
+     */
+    public static final String PLACEHOLDER = new String("{}");
+
+    /**
+     * Optional cache of encoded path segments, used by the URL builder.
      */
-    private static final String HEX_CODE_UPPER = "0123456789ABCDEF";
+    private static volatile SegmentCache pathSegmentCache;
+
+    /**
+     * Optional listener of built URLs and encoded values.
+     */
+    private static volatile URIBuildListener buildListener;
 
     public static URLBuilder createURL()
     {
@@ -33,85 +40,94 @@ public class URIBuilder
     }
 
     /**
-     * Encodes URI components and joins them with a slash
-     * @param pathSeparator URI path elements are separated by (mostly '/' or ':')
-     * @param pathElements components for URI
-     * @return joined for path info (don't encode it again) without leading and trailing slash
+     * Compiles a URL with constant and variable path elements.
+     * @param scheme scheme of the URL
+     * @param server server of the URL
+     * @param pathElements unencoded constant path elements and {@link #PLACEHOLDER} for variable path elements
+     * @return thread-safe template
      */
-    public static String combinePathElements(Character pathSeparator, String[] pathElements)
+    public static URITemplate compileTemplate(String scheme, String server, String... pathElements)
     {
-        return Arrays.stream(pathElements).map((e) -> URIBuilder.encodeEntry(e, pathSeparator)).collect(Collectors.joining("/"));
+        return new URITemplate(scheme, server, pathElements);
     }
 
-    private static String encodeEntry(String entry, Character pathSeparator)
+    /**
+     * Sets the cache for encoded path segments of URLs, the cache must use the encoder {@link URIEncoder#PATH_SEGMENT}.
+     * @param cache cache or null to encode each segment
+     */
+    public static void setPathSegmentCache(SegmentCache cache)
     {
-        byte stringBytes[] = entry.getBytes(StandardCharsets.UTF_8);
-
-        // get length of byte array
-        int l = stringBytes.length;
-        StringBuilder builder = new StringBuilder(entry.length());
-        // for each character
-        for (int i = 0; i < l; i++)
+        if (cache != null && cache.getEncoder() != URIEncoder.PATH_SEGMENT)
         {
-            // get the next byte
-            byte chValue = stringBytes[i];
-
-            // see RFC 3986 for which characters must be encoded and which not
-            // https://datatracker.ietf.org/doc/html/rfc3986#appendix-A (path-rootless)
-            if (isPchar(chValue) && pathSeparator != chValue)
-            {
-                builder.append((char) chValue);
-            }
-            else
-            {
-                // add the % sign
-                builder.append('%');
+            throw new IllegalArgumentException("The cache must encode path segments");
+        }
+        pathSegmentCache = cache;
+    }
 
-                // get the int value
-                int intValue = chValue;
+    /**
+     * @return cache for encoded path segments of URLs or null
+     */
+    public static SegmentCache getPathSegmentCache()
+    {
+        return pathSegmentCache;
+    }
 
-                // get the hex value
-                builder.append(HEX_CODE_UPPER.charAt((intValue >>> 4) & 0xf));
-                builder.append(HEX_CODE_UPPER.charAt(intValue & 0xf));
-            }
-        }
-        return builder.toString();
+    /**
+     * Sets the listener of built URLs and encoded values, e.g. {@link URIBuildCounters}.
+     * Without listener, the builder and the encoder are only observable by the flight recorder events
+     * com.intershop.jdk.URIBuild and com.intershop.jdk.URIEncode, which are disabled by default.
+     * @param listener listener or null
+     */
+    public static void setBuildListener(URIBuildListener listener)
+    {
+        buildListener = listener;
     }
 
     /**
-     * from RFC pchar = unreserved / pct-encoded / sub-delims / ":" / "@"
-     * @param chValue
-     * @return true if chValue is "pchar" except the pct-encoded defined by RFC 3986
+     * @return listener of built URLs and encoded values or null
      */
-    private static boolean isPchar(byte chValue)
+    public static URIBuildListener getBuildListener()
     {
-        return isUnreserved(chValue) || isSubDelims(chValue) || (chValue == ':') || (chValue == '@');
+        return buildListener;
     }
 
     /**
-     * @param chValue
-     * @return true if chValue is "unreserved" defined by RFC 3986
+     * Encodes URI components and joins them with the separator
+     * @param pathSeparator URI path elements are separated by (mostly '/' or ':')
+     * @param pathElements components for URI
+     * @return joined for path info (don't encode it again) without leading and trailing separator
      */
-    private static boolean isUnreserved(byte chValue)
+    public static String combinePathElements(Character pathSeparator, String[] pathElements)
     {
-        return (chValue == '-') || (chValue == '_') || (chValue == '.') || (chValue == '~')
-                        // digits 0-9
-                        || (chValue >= 48) && (chValue <= 57)
-                        // lowercase characters a-z
-                        || (chValue >= 65) && (chValue <= 90)
-                        // uppercase characters A-Z
-                        || (chValue >= 97) && (chValue <= 122);
+        return combinePathElements(pathSeparator, pathElements, new StringBuilder()).toString();
     }
 
     /**
-     * from RFC sub-delims    = "!" / "$" / "&" / "'" / "(" / ")"
-     *                        / "*" / "+" / "," / ";" / "="
-     * @param chValue
-     * @return true if chValue is "sub-delims" defined by RFC 3986.
+     * Encodes URI components and appends them joined with the separator to the builder
+     * @param pathSeparator URI path elements are separated by (mostly '/' or ':')
+     * @param pathElements components for URI
+     * @param builder target for the encoded path elements
+     * @return the given builder
      */
-    private static boolean isSubDelims(byte chValue)
+    public static StringBuilder combinePathElements(char pathSeparator, String[] pathElements, StringBuilder builder)
     {
-        return (chValue == '!') || (chValue == '$') || (chValue == '&') || (chValue == '\'') || (chValue == '(') || (chValue == ')')
-                        || (chValue == '*') || (chValue == '+') || (chValue == ',') || (chValue == ';') || (chValue == '=');
+        URIEncoder encoder = URIEncoder.forPathSeparator(pathSeparator);
+        SegmentCache cache = encoder == URIEncoder.PATH_SEGMENT ? pathSegmentCache : null;
+        for (int i = 0; i < pathElements.length; i++)
+        {
+            if (i > 0)
+            {
+                builder.append(pathSeparator);
+            }
+            if (cache != null)
+            {
+                builder.append(cache.encode(pathElements[i]));
+            }
+            else
+            {
+                encoder.encode(pathElements[i], builder);
+            }
+        }
+        return builder;
     }
 }
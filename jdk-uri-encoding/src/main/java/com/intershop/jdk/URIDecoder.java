@@ -0,0 +1,204 @@
+package com.intershop.jdk;
+
+/**
+ * Decoder for encoded paths, the inverse of {@link URIBuilder#combinePathElements(Character, String[])}.
+ *
+ * The path is split at the separator before the path elements are decoded, so an encoded separator (e.g. %2F)
+ * is part of the path element. A '+' is not a space, it's decoded as '+'.
+ * Path elements without escaped characters are returned as substring without decoding.
+ */
+public final class URIDecoder
+{
+    /**
+     * Value of the hexadecimal digits, -1 for other characters.
+     */
+    private static final byte[] HEX_VALUE = new byte[128];
+
+    /**
+     * Number of bytes of a UTF-8 sequence by its lead byte, 0 for bytes that can't start a sequence.
+     */
+    private static final byte[] UTF8_LENGTH = new byte[256];
+
+    /**
+     * Minimal code point of a UTF-8 sequence by its length, smaller values are overlong encoded.
+     */
+    private static final int[] UTF8_MIN_CODE_POINT = { 0, 0, 0x80, 0x800, 0x10000 };
+
+    static
+    {
+        for (int i = 0; i < HEX_VALUE.length; i++)
+        {
+            HEX_VALUE[i] = (byte) Character.digit(i, 16);
+        }
+        for (int i = 0; i < 0x80; i++)
+        {
+            UTF8_LENGTH[i] = 1;
+        }
+        for (int i = 0xC2; i < 0xE0; i++)
+        {
+            UTF8_LENGTH[i] = 2;
+        }
+        for (int i = 0xE0; i < 0xF0; i++)
+        {
+            UTF8_LENGTH[i] = 3;
+        }
+        for (int i = 0xF0; i < 0xF5; i++)
+        {
+            UTF8_LENGTH[i] = 4;
+        }
+    }
+
+    private URIDecoder()
+    {
+    }
+
+    /**
+     * Splits an encoded raw path (e.g. from a request line) into decoded path elements, a leading slash is ignored.
+     * <pre>
+     * "/rest/customers/2024%2F1234" -> ["rest", "customers", "2024/1234"]
+     * </pre>
+     * @param rawPath encoded path
+     * @return decoded path elements
+     * @throws IllegalArgumentException if the path contains malformed escapes
+     */
+    public static String[] decodeRawPath(String rawPath)
+    {
+        if (rawPath.startsWith("/"))
+        {
+            return decodePathElements('/', rawPath, 1, rawPath.length());
+        }
+        return decodePathElements('/', rawPath, 0, rawPath.length());
+    }
+
+    /**
+     * Splits the result of {@link URIBuilder#combinePathElements(Character, String[])} into the decoded path elements.
+     * An empty string is decoded to an empty array.
+     * @param pathSeparator URI path elements are separated by (mostly '/' or ':')
+     * @param encodedPath encoded path elements joined by the separator
+     * @return decoded path elements
+     * @throws IllegalArgumentException if the path contains malformed escapes
+     */
+    public static String[] decodePathElements(char pathSeparator, String encodedPath)
+    {
+        return decodePathElements(pathSeparator, encodedPath, 0, encodedPath.length());
+    }
+
+    private static String[] decodePathElements(char pathSeparator, String encodedPath, int start, int end)
+    {
+        if (start == end)
+        {
+            return new String[0];
+        }
+        int count = 1;
+        for (int i = start; i < end; i++)
+        {
+            if (encodedPath.charAt(i) == pathSeparator)
+            {
+                count++;
+            }
+        }
+        String[] result = new String[count];
+        int elementStart = start;
+        int element = 0;
+        for (int i = start; i < end; i++)
+        {
+            if (encodedPath.charAt(i) == pathSeparator)
+            {
+                result[element++] = decode(encodedPath, elementStart, i);
+                elementStart = i + 1;
+            }
+        }
+        result[element] = decode(encodedPath, elementStart, end);
+        return result;
+    }
+
+    /**
+     * Decodes an encoded URI component, percent-encoded bytes are decoded as UTF-8.
+     * @param encoded encoded value
+     * @return decoded value, the given instance if nothing is escaped
+     * @throws IllegalArgumentException if the value contains malformed escapes
+     */
+    public static String decode(String encoded)
+    {
+        return decode(encoded, 0, encoded.length());
+    }
+
+    /**
+     * Decodes a part of an encoded URI component, percent-encoded bytes are decoded as UTF-8.
+     * @param encoded encoded value
+     * @param start index of the first character
+     * @param end index after the last character
+     * @return decoded value
+     * @throws IllegalArgumentException if the value contains malformed escapes
+     */
+    public static String decode(String encoded, int start, int end)
+    {
+        int escape = encoded.indexOf('%', start);
+        if (escape < 0 || escape >= end)
+        {
+            return start == 0 && end == encoded.length() ? encoded : encoded.substring(start, end);
+        }
+        StringBuilder builder = new StringBuilder(end - start);
+        builder.append(encoded, start, escape);
+        for (int i = escape; i < end; i++)
+        {
+            char ch = encoded.charAt(i);
+            if (ch != '%')
+            {
+                builder.append(ch);
+                continue;
+            }
+            int lead = decodeByte(encoded, i, end);
+            int length = UTF8_LENGTH[lead];
+            if (length == 0)
+            {
+                throw new IllegalArgumentException("Invalid UTF-8 lead byte at index " + i + ": " + encoded);
+            }
+            int codePoint = length == 1 ? lead : lead & (0xFF >> (length + 1));
+            for (int n = 1; n < length; n++)
+            {
+                i += 3;
+                if (i >= end || encoded.charAt(i) != '%')
+                {
+                    throw new IllegalArgumentException("Incomplete UTF-8 sequence at index " + i + ": " + encoded);
+                }
+                int next = decodeByte(encoded, i, end);
+                if ((next & 0xC0) != 0x80)
+                {
+                    throw new IllegalArgumentException("Invalid UTF-8 continuation byte at index " + i + ": " + encoded);
+                }
+                codePoint = (codePoint << 6) | (next & 0x3F);
+            }
+            if (codePoint < UTF8_MIN_CODE_POINT[length] || codePoint > Character.MAX_CODE_POINT
+                            || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE))
+            {
+                throw new IllegalArgumentException("Invalid UTF-8 sequence at index " + i + ": " + encoded);
+            }
+            builder.appendCodePoint(codePoint);
+            i += 2;
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @param encoded encoded value
+     * @param escape index of the '%'
+     * @param end index after the last character
+     * @return value of the escaped byte
+     */
+    static int decodeByte(String encoded, int escape, int end)
+    {
+        if (escape + 2 >= end)
+        {
+            throw new IllegalArgumentException("Incomplete escape sequence at index " + escape + ": " + encoded);
+        }
+        char high = encoded.charAt(escape + 1);
+        char low = encoded.charAt(escape + 2);
+        int value = high < 128 && low < 128 ? (HEX_VALUE[high] << 4) | HEX_VALUE[low] : -1;
+        if (value < 0)
+        {
+            throw new IllegalArgumentException("Malformed escape sequence at index " + escape + ": " + encoded);
+        }
+        return value;
+    }
+}
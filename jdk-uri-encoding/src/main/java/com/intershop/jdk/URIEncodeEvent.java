@@ -0,0 +1,50 @@
+package com.intershop.jdk;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of {@link URIEncoder}, one event per encoded value.
+ * The event is disabled by default, enable it in the recording settings (e.g. with a threshold) to find values
+ * with many escaped characters.
+ */
+@Name("com.intershop.jdk.URIEncode")
+@Label("URI Encode")
+@Description("Percent-encoding of a URI component")
+@Category({ "Intershop", "URI" })
+@Enabled(false)
+@StackTrace(false)
+final class URIEncodeEvent extends Event
+{
+    @Label("Input Length")
+    @Description("Number of characters of the unencoded value")
+    int inputLength;
+
+    @Label("Output Length")
+    @Description("Number of characters of the encoded value")
+    int outputLength;
+
+    @Label("Escaped Bytes")
+    @Description("Number of UTF-8 bytes that are percent-encoded")
+    int escapedBytes;
+
+    /**
+     * Creates the event and starts the timing, if the event is enabled.
+     * If the flight recorder is not recording, the event is not allocated after JIT compilation.
+     * @return event to commit after encoding
+     */
+    static URIEncodeEvent start()
+    {
+        URIEncodeEvent event = new URIEncodeEvent();
+        if (event.isEnabled())
+        {
+            event.begin();
+        }
+        return event;
+    }
+}
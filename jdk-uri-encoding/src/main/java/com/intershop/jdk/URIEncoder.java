@@ -0,0 +1,1135 @@
+package com.intershop.jdk;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+/**
+ * Table driven percent-encoder for the components of a URI (RFC 3986, RFC 8141).
+ *
+ * Each instance owns a precomputed table of the characters that are allowed unencoded in its component.
+ * ASCII input is read directly from the string; only characters outside the ASCII range are converted to UTF-8.
+ * If nothing needs escaping, the input string is returned unchanged.
+ *
+ * If the module jdk.incubator.vector is enabled (--add-modules jdk.incubator.vector), long values are scanned with
+ * the Vector API for characters to escape and the unescaped runs are copied in bulk. The scan copies the characters
+ * chunk by chunk into a small buffer of the call, so neither the memory nor the state depends on the value or the thread.
+ * Without the module, or with the system property com.intershop.jdk.uri.vector=false, the scalar scan is used.
+ *
+ * Each encoded value is reported to the {@link URIBuildListener} and as flight recorder event com.intershop.jdk.URIEncode,
+ * if a listener is set or the event is enabled.
+ */
+public final class URIEncoder
+{
+    /**
+     * The hexadecimal characters in upper case.
+     */
+    private static final char[] HEX_CODE_UPPER = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * The hexadecimal characters in upper case as ASCII bytes.
+     */
+    private static final byte[] HEX_BYTE_UPPER = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F' };
+
+    /**
+     * Size of the allowed-character tables, one entry per byte value.
+     */
+    private static final int TABLE_SIZE = 256;
+
+    /**
+     * Minimal length of a value scanned with the Vector API, shorter values don't pay for the copy of the characters.
+     */
+    private static final int VECTOR_MIN_LENGTH = 64;
+
+    /**
+     * Number of characters copied at once for the Vector API scanner, a multiple of the vector length.
+     */
+    private static final int WINDOW_SIZE = 128;
+
+    /**
+     * Length of the nibble tables, a table is repeated for vectors up to 512 bits.
+     */
+    static final int NIBBLE_TABLE_LENGTH = 64;
+
+    /**
+     * Vector API scanner or null if the module jdk.incubator.vector is not available, e.g. in a native image.
+     */
+    private static final Scanner SCANNER = loadVectorScanner();
+
+    /*
+     * The character sets are compile-time constants, so the initialization of the first encoder builds the tables only.
+     */
+
+    private static final String ALPHA_DIGIT = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    /**
+     * from RFC unreserved = ALPHA / DIGIT / "-" / "." / "_" / "~"
+     */
+    private static final String UNRESERVED = ALPHA_DIGIT + "-._~";
+
+    /**
+     * from RFC sub-delims = "!" / "$" / "&" / "'" / "(" / ")" / "*" / "+" / "," / ";" / "="
+     */
+    private static final String SUB_DELIMS = "!$&'()*+,;=";
+
+    /**
+     * from RFC pchar = unreserved / pct-encoded / sub-delims / ":" / "@"
+     */
+    private static final String PCHAR = UNRESERVED + SUB_DELIMS + ":@";
+
+    /**
+     * Encoder for one path segment of a URL (segment = *pchar), the '/' is encoded.
+     */
+    public static final URIEncoder PATH_SEGMENT = new URIEncoder(PCHAR);
+
+    /**
+     * Encoder for one element of the namespace specific string of a URN, the ':' is encoded because it separates the elements.
+     */
+    public static final URIEncoder URN_NSS = new URIEncoder(UNRESERVED + SUB_DELIMS + "@/");
+
+    /**
+     * Encoder for the r-component and q-component of a URN, the '?' is encoded to keep the components apart.
+     */
+    public static final URIEncoder URN_COMPONENT = new URIEncoder(PCHAR + "/");
+
+    /**
+     * Encoder for the query part of a URI (query = *( pchar / "/" / "?" )).
+     */
+    public static final URIEncoder QUERY = new URIEncoder(PCHAR + "/?");
+
+    /**
+     * Encoder for the fragment part of a URI (fragment = *( pchar / "/" / "?" )).
+     */
+    public static final URIEncoder FRAGMENT = new URIEncoder(PCHAR + "/?");
+
+    /**
+     * Encoder for names and values of query parameters, the separators '&amp;' and '=' and the '+' are encoded.
+     * The '+' is encoded, because some servers decode it as space in the query.
+     */
+    public static final URIEncoder QUERY_PARAMETER = new URIEncoder(UNRESERVED + "!$'()*,;" + ":@/?");
+
+    /**
+     * Encoder for names and values of application/x-www-form-urlencoded query parameters, a space is encoded as '+'.
+     */
+    public static final URIEncoder FORM = new URIEncoder(ALPHA_DIGIT + "-._*", true);
+
+    /**
+     * Encoder for the user information of an authority (userinfo = *( unreserved / pct-encoded / sub-delims / ":" )).
+     */
+    public static final URIEncoder USERINFO = new URIEncoder(UNRESERVED + SUB_DELIMS + ":");
+
+    /**
+     * Encoders of {@link #forPathSeparator(char)} by separator, created on first use.
+     */
+    private static final URIEncoder[] SEPARATOR_ENCODERS = new URIEncoder[128];
+
+    private final boolean[] allowed;
+    private final boolean spaceAsPlus;
+    /**
+     * Allowed characters as nibble tables for the Vector API scanner, a character c is allowed
+     * if (nibbleLow[c &amp; 0xF] &amp; nibbleHigh[c &gt;&gt;&gt; 4]) != 0.
+     */
+    final byte[] nibbleLow = new byte[NIBBLE_TABLE_LENGTH];
+    final byte[] nibbleHigh = new byte[NIBBLE_TABLE_LENGTH];
+
+    private URIEncoder(String allowedCharacters)
+    {
+        this(allowedCharacters, false);
+    }
+
+    private URIEncoder(String allowedCharacters, boolean spaceAsPlus)
+    {
+        this.spaceAsPlus = spaceAsPlus;
+        allowed = new boolean[TABLE_SIZE];
+        for (int i = 0; i < allowedCharacters.length(); i++)
+        {
+            allowed[allowedCharacters.charAt(i)] = true;
+        }
+        for (int i = 0; i < NIBBLE_TABLE_LENGTH; i++)
+        {
+            int nibble = i & 0xF;
+            // bytes with the high bit set (characters beyond ASCII) are never allowed
+            nibbleHigh[i] = nibble < 8 ? (byte) (1 << nibble) : 0;
+            for (int high = 0; high < 8; high++)
+            {
+                if (allowed[(high << 4) | nibble])
+                {
+                    nibbleLow[i] |= (byte) (1 << high);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scanner for characters that must be escaped.
+     */
+    interface Scanner
+    {
+        /**
+         * Scans complete vectors of the characters.
+         * @param chars characters of the value
+         * @param from index of the first character to scan
+         * @param to index after the last character to scan
+         * @param encoder encoder with the nibble tables
+         * @return index of the first character that must be escaped or the index of the tail shorter than a vector
+         */
+        int scan(char[] chars, int from, int to, URIEncoder encoder);
+    }
+
+    /**
+     * Characters of a value from index start to end, copied for the Vector API scanner.
+     * A window is created per encoded value and passed from the scan to the encoding, it is not shared between threads.
+     */
+    private static final class Window
+    {
+        private final char[] chars = new char[WINDOW_SIZE];
+        private int start;
+        private int end;
+
+        /**
+         * Copies the characters of the value from the index on.
+         */
+        void load(String value, int from)
+        {
+            start = from;
+            end = Math.min(from + WINDOW_SIZE, value.length());
+            value.getChars(start, end, chars, 0);
+        }
+    }
+
+    private static Scanner loadVectorScanner()
+    {
+        if (!Boolean.parseBoolean(System.getProperty("com.intershop.jdk.uri.vector", "true"))
+                        || System.getProperty("org.graalvm.nativeimage.imagecode") != null
+                        || !isVectorModuleEnabled())
+        {
+            return null;
+        }
+        try
+        {
+            // loaded by name, because the class can't be linked without the module
+            return (Scanner) Class.forName("com.intershop.jdk.VectorScanner").getDeclaredConstructor().newInstance();
+        }
+        catch(ReflectiveOperationException | LinkageError e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * ModuleLayer.findModule is not used, it looks up a missing module with a stream and bootstraps lambdas.
+     */
+    private static boolean isVectorModuleEnabled()
+    {
+        for (Module module : ModuleLayer.boot().modules())
+        {
+            if (module.getName().equals("jdk.incubator.vector"))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if long values are scanned with the Vector API
+     */
+    public static boolean isVectorized()
+    {
+        return SCANNER != null;
+    }
+
+    /**
+     * Returns the encoder for path elements that are separated by the given character, the encoder is created once per separator.
+     * @param pathSeparator URI path elements are separated by (mostly '/' or ':')
+     * @return encoder that encodes the separator and all characters that are not allowed in a path segment
+     */
+    public static URIEncoder forPathSeparator(char pathSeparator)
+    {
+        if (pathSeparator == '/')
+        {
+            return PATH_SEGMENT;
+        }
+        if (pathSeparator == ':')
+        {
+            return URN_NSS;
+        }
+        if (PCHAR.indexOf(pathSeparator) < 0)
+        {
+            // the separator is encoded in a path segment anyway
+            return PATH_SEGMENT;
+        }
+        // the encoder is immutable, a concurrent first call creates an equal encoder at most
+        URIEncoder encoder = SEPARATOR_ENCODERS[pathSeparator];
+        if (encoder == null)
+        {
+            StringBuilder allowedCharacters = new StringBuilder(PCHAR.length());
+            for (int i = 0; i < PCHAR.length(); i++)
+            {
+                if (PCHAR.charAt(i) != pathSeparator)
+                {
+                    allowedCharacters.append(PCHAR.charAt(i));
+                }
+            }
+            encoder = new URIEncoder(allowedCharacters.toString());
+            SEPARATOR_ENCODERS[pathSeparator] = encoder;
+        }
+        return encoder;
+    }
+
+    /**
+     * @param ch character
+     * @return true if the character is allowed unencoded for this component
+     */
+    public boolean isAllowed(char ch)
+    {
+        return ch < TABLE_SIZE && allowed[ch];
+    }
+
+    /**
+     * Encodes the given value.
+     * @param value unencoded value
+     * @return encoded value, the given instance if nothing needs to be escaped
+     */
+    public String encode(String value)
+    {
+        URIEncodeEvent event = URIEvents.startEncode();
+        String result = value;
+        Window window = window(value);
+        int first = firstToEscape(value, window);
+        if (first < value.length())
+        {
+            StringBuilder builder = new StringBuilder(value.length() + 16);
+            builder.append(value, 0, first);
+            encodeFrom(value, first, builder, window);
+            result = builder.toString();
+        }
+        record(event, value, result.length());
+        return result;
+    }
+
+    /**
+     * Encodes the given value and appends it to the builder.
+     * @param value unencoded value
+     * @param builder target of the encoded value
+     * @return the given builder
+     */
+    public StringBuilder encode(String value, StringBuilder builder)
+    {
+        URIEncodeEvent event = URIEvents.startEncode();
+        int start = builder.length();
+        Window window = window(value);
+        int first = firstToEscape(value, window);
+        builder.append(value, 0, first);
+        if (first < value.length())
+        {
+            encodeFrom(value, first, builder, window);
+        }
+        record(event, value, builder.length() - start);
+        return builder;
+    }
+
+    /**
+     * Encodes the given value and appends it to the appendable.
+     * @param value unencoded value
+     * @param appendable target of the encoded value
+     * @return the given appendable
+     * @throws IOException if the appendable fails
+     */
+    public Appendable encode(String value, Appendable appendable) throws IOException
+    {
+        if (appendable instanceof StringBuilder builder)
+        {
+            return encode(value, builder);
+        }
+        URIEncodeEvent event = URIEvents.startEncode();
+        Window window = window(value);
+        int first = firstToEscape(value, window);
+        appendable.append(value, 0, first);
+        int encodedLength = first;
+        if (first < value.length())
+        {
+            StringBuilder builder = new StringBuilder(value.length() - first + 16);
+            encodeFrom(value, first, builder, window);
+            appendable.append(builder);
+            encodedLength += builder.length();
+        }
+        record(event, value, encodedLength);
+        return appendable;
+    }
+
+    /**
+     * Encodes the given value and appends it to the builder, without converting the value to a string.
+     * @param value unencoded value, e.g. a slice of a CharBuffer or a segment of a StringBuilder
+     * @param builder target of the encoded value
+     * @return the given builder
+     */
+    public StringBuilder encode(CharSequence value, StringBuilder builder)
+    {
+        if (value instanceof String string)
+        {
+            return encode(string, builder);
+        }
+        URIEncodeEvent event = URIEvents.startEncode();
+        int start = builder.length();
+        int l = value.length();
+        int i = 0;
+        while (i < l)
+        {
+            i = encodeCharacter(value, i, builder);
+        }
+        record(event, value, builder.length() - start);
+        return builder;
+    }
+
+    /**
+     * Encodes the given value and appends it to the appendable, without converting the value to a string.
+     * @param value unencoded value
+     * @param appendable target of the encoded value
+     * @return the given appendable
+     * @throws IOException if the appendable fails
+     */
+    public Appendable encode(CharSequence value, Appendable appendable) throws IOException
+    {
+        if (value instanceof String string)
+        {
+            return encode(string, appendable);
+        }
+        if (appendable instanceof StringBuilder builder)
+        {
+            return encode(value, builder);
+        }
+        try (Writer writer = writer(appendable))
+        {
+            writer.append(value);
+        }
+        return appendable;
+    }
+
+    /**
+     * Encodes the characters of the reader chunk by chunk, e.g. an unusually large path or matrix parameter.
+     * The reader is not closed.
+     * @param reader unencoded value
+     * @param appendable target of the encoded value
+     * @return the given appendable
+     * @throws IOException if the reader or the appendable fails
+     */
+    public Appendable encode(Reader reader, Appendable appendable) throws IOException
+    {
+        try (Writer writer = writer(appendable))
+        {
+            reader.transferTo(writer);
+        }
+        return appendable;
+    }
+
+    /**
+     * Creates a writer that encodes the written characters and appends them to the target. The characters can be
+     * written in chunks of any size, a surrogate pair split between two chunks is encoded as one code point.
+     * Closing the writer encodes a remaining high surrogate as malformed and flushes the encoded characters,
+     * the target itself is not closed.
+     * @param target target of the encoded value
+     * @return writer of the unencoded value
+     */
+    public Writer writer(Appendable target)
+    {
+        return new EncodingWriter(target);
+    }
+
+    /**
+     * Calculates the length of the encoded value without encoding it.
+     * @param value unencoded value
+     * @return number of characters of the encoded value
+     */
+    public int encodedLength(String value)
+    {
+        return encodedLength(value, firstToEscape(value));
+    }
+
+    /**
+     * Calculates the length of the encoded value without encoding it.
+     * @param value unencoded value, e.g. a slice of a CharBuffer
+     * @return number of characters of the encoded value
+     */
+    public int encodedLength(CharSequence value)
+    {
+        return value instanceof String string ? encodedLength(string) : encodedLength(value, 0);
+    }
+
+    /**
+     * @param from index of the first character that may be escaped
+     */
+    private int encodedLength(CharSequence value, int from)
+    {
+        int l = value.length();
+        int length = l;
+        for (int i = from; i < l; i++)
+        {
+            char ch = value.charAt(i);
+            if (ch < 0x80)
+            {
+                if (!allowed[ch] && !(spaceAsPlus && ch == ' '))
+                {
+                    length += 2;
+                }
+            }
+            else if (ch < 0x800)
+            {
+                length += 5;
+            }
+            else if (Character.isHighSurrogate(ch) && i + 1 < l && Character.isLowSurrogate(value.charAt(i + 1)))
+            {
+                // two characters are encoded as four bytes
+                length += 10;
+                i++;
+            }
+            else if (Character.isSurrogate(ch))
+            {
+                length += 2;
+            }
+            else
+            {
+                length += 8;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Encodes the given value into the character array, the array must be large enough (see {@link #encodedLength(String)}).
+     * @param value unencoded value
+     * @param target target of the encoded value
+     * @param offset position of the first encoded character in the target
+     * @return position after the last encoded character
+     */
+    public int encode(String value, char[] target, int offset)
+    {
+        URIEncodeEvent event = URIEvents.startEncode();
+        int pos = encodeChars(value, target, offset);
+        record(event, value, pos - offset);
+        return pos;
+    }
+
+    /**
+     * Encodes the given value into the character array, the array must be large enough
+     * (see {@link #encodedLength(CharSequence)}).
+     * @param value unencoded value, e.g. a slice of a CharBuffer
+     * @param target target of the encoded value
+     * @param offset position of the first encoded character in the target
+     * @return position after the last encoded character
+     */
+    public int encode(CharSequence value, char[] target, int offset)
+    {
+        if (value instanceof String string)
+        {
+            return encode(string, target, offset);
+        }
+        URIEncodeEvent event = URIEvents.startEncode();
+        int pos = encodeChars(value, 0, target, offset);
+        record(event, value, pos - offset);
+        return pos;
+    }
+
+    private int encodeChars(String value, char[] target, int offset)
+    {
+        int first = firstToEscape(value);
+        value.getChars(0, first, target, offset);
+        return encodeChars(value, first, target, offset + first);
+    }
+
+    /**
+     * Encodes the characters from the index on, a surrogate pair is encoded as one code point.
+     * @param from index of the first character that may be escaped
+     * @param pos position of the first encoded character in the target
+     * @return position after the last encoded character
+     */
+    private int encodeChars(CharSequence value, int from, char[] target, int pos)
+    {
+        int l = value.length();
+        for (int i = from; i < l; i++)
+        {
+            char ch = value.charAt(i);
+            if (Character.isHighSurrogate(ch) && i + 1 < l && Character.isLowSurrogate(value.charAt(i + 1)))
+            {
+                pos = putCodePoint(Character.toCodePoint(ch, value.charAt(++i)), target, pos);
+            }
+            else
+            {
+                pos = putChar(ch, target, pos);
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Encodes a character that is not part of a surrogate pair, a malformed surrogate is encoded as '?'.
+     * @return position after the encoded character
+     */
+    private int putChar(char ch, char[] target, int pos)
+    {
+        if (ch < 0x80)
+        {
+            if (allowed[ch])
+            {
+                target[pos] = ch;
+                return pos + 1;
+            }
+            if (spaceAsPlus && ch == ' ')
+            {
+                target[pos] = '+';
+                return pos + 1;
+            }
+            return putEscaped(ch, target, pos);
+        }
+        if (ch < 0x800)
+        {
+            pos = putEscaped(0xC0 | (ch >> 6), target, pos);
+            return putEscaped(0x80 | (ch & 0x3F), target, pos);
+        }
+        if (Character.isSurrogate(ch))
+        {
+            return putEscaped('?', target, pos);
+        }
+        pos = putEscaped(0xE0 | (ch >> 12), target, pos);
+        pos = putEscaped(0x80 | ((ch >> 6) & 0x3F), target, pos);
+        return putEscaped(0x80 | (ch & 0x3F), target, pos);
+    }
+
+    /**
+     * Encodes a code point beyond the BMP as four UTF-8 bytes.
+     * @return position after the encoded code point
+     */
+    private static int putCodePoint(int codePoint, char[] target, int pos)
+    {
+        pos = putEscaped(0xF0 | (codePoint >> 18), target, pos);
+        pos = putEscaped(0x80 | ((codePoint >> 12) & 0x3F), target, pos);
+        pos = putEscaped(0x80 | ((codePoint >> 6) & 0x3F), target, pos);
+        return putEscaped(0x80 | (codePoint & 0x3F), target, pos);
+    }
+
+    /**
+     * Encodes the given value into the byte array, the encoded value is pure ASCII.
+     * The array must be large enough (see {@link #encodedLength(String)}).
+     * @param value unencoded value
+     * @param target target of the encoded value
+     * @param offset position of the first encoded byte in the target
+     * @return position after the last encoded byte
+     */
+    public int encode(String value, byte[] target, int offset)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(target, offset, target.length - offset);
+        encode(value, buffer);
+        return buffer.position();
+    }
+
+    /**
+     * Encodes the given value into the buffer at its current position, the encoded value is pure ASCII.
+     * The buffer must have enough remaining space (see {@link #encodedLength(String)}).
+     * @param value unencoded value
+     * @param target target of the encoded value
+     * @throws BufferOverflowException if the encoded value doesn't fit into the buffer
+     */
+    public void encode(String value, ByteBuffer target)
+    {
+        URIEncodeEvent event = URIEvents.startEncode();
+        int start = target.position();
+        encodeBytes(value, target);
+        record(event, value, target.position() - start);
+    }
+
+    private void encodeBytes(String value, ByteBuffer target)
+    {
+        int l = value.length();
+        int first = firstToEscape(value);
+        putASCII(value, 0, first, target);
+        for (int i = first; i < l; i++)
+        {
+            char ch = value.charAt(i);
+            if (ch < 0x80)
+            {
+                if (allowed[ch])
+                {
+                    target.put((byte) ch);
+                }
+                else if (spaceAsPlus && ch == ' ')
+                {
+                    target.put((byte) '+');
+                }
+                else
+                {
+                    putEscaped(ch, target);
+                }
+            }
+            else if (ch < 0x800)
+            {
+                putEscaped(0xC0 | (ch >> 6), target);
+                putEscaped(0x80 | (ch & 0x3F), target);
+            }
+            else if (Character.isHighSurrogate(ch) && i + 1 < l && Character.isLowSurrogate(value.charAt(i + 1)))
+            {
+                int codePoint = Character.toCodePoint(ch, value.charAt(++i));
+                putEscaped(0xF0 | (codePoint >> 18), target);
+                putEscaped(0x80 | ((codePoint >> 12) & 0x3F), target);
+                putEscaped(0x80 | ((codePoint >> 6) & 0x3F), target);
+                putEscaped(0x80 | (codePoint & 0x3F), target);
+            }
+            else if (Character.isSurrogate(ch))
+            {
+                putEscaped('?', target);
+            }
+            else
+            {
+                putEscaped(0xE0 | (ch >> 12), target);
+                putEscaped(0x80 | ((ch >> 6) & 0x3F), target);
+                putEscaped(0x80 | (ch & 0x3F), target);
+            }
+        }
+    }
+
+    /**
+     * Reports the encoded value to the build listener and the flight recorder, if any of them is interested.
+     * @param event event started before encoding, null if the flight recorder is not initialized
+     * @param value unencoded value
+     * @param encodedLength number of characters of the encoded value
+     */
+    private void record(URIEncodeEvent event, CharSequence value, int encodedLength)
+    {
+        if (URIBuilder.getBuildListener() == null && (event == null || !event.shouldCommit()))
+        {
+            return;
+        }
+        // escaping always extends the value, a space encoded as '+' is not counted as escaped
+        int escapedBytes = encodedLength == value.length() ? 0 : escapedBytes(value);
+        record(event, value.length(), encodedLength, escapedBytes);
+    }
+
+    /**
+     * @param event event started before encoding, null if the flight recorder is not initialized
+     * @param inputLength number of characters of the unencoded value
+     * @param encodedLength number of characters of the encoded value
+     * @param escapedBytes number of UTF-8 bytes that are percent-encoded
+     */
+    private static void record(URIEncodeEvent event, int inputLength, int encodedLength, int escapedBytes)
+    {
+        URIBuildListener listener = URIBuilder.getBuildListener();
+        if (listener != null)
+        {
+            listener.encoded(inputLength, encodedLength, escapedBytes);
+        }
+        if (event != null && event.shouldCommit())
+        {
+            event.inputLength = inputLength;
+            event.outputLength = encodedLength;
+            event.escapedBytes = escapedBytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * @param value unencoded value
+     * @return number of UTF-8 bytes that are percent-encoded
+     */
+    private int escapedBytes(CharSequence value)
+    {
+        int l = value.length();
+        int count = 0;
+        for (int i = value instanceof String string ? firstToEscape(string) : 0; i < l; i++)
+        {
+            char ch = value.charAt(i);
+            if (ch < 0x80)
+            {
+                if (!allowed[ch] && !(spaceAsPlus && ch == ' '))
+                {
+                    count++;
+                }
+            }
+            else if (ch < 0x800)
+            {
+                count += 2;
+            }
+            else if (Character.isHighSurrogate(ch) && i + 1 < l && Character.isLowSurrogate(value.charAt(i + 1)))
+            {
+                count += 4;
+                i++;
+            }
+            else if (Character.isSurrogate(ch))
+            {
+                count++;
+            }
+            else
+            {
+                count += 3;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Copies ASCII characters (e.g. an already encoded value) into the buffer.
+     * @param value string with ASCII characters only
+     * @param start first character to copy
+     * @param end index after the last character to copy
+     * @param target target buffer
+     * @throws BufferOverflowException if the characters don't fit into the buffer
+     */
+    @SuppressWarnings("deprecation")
+    static void putASCII(String value, int start, int end, ByteBuffer target)
+    {
+        int length = end - start;
+        if (target.remaining() < length)
+        {
+            throw new BufferOverflowException();
+        }
+        if (target.hasArray())
+        {
+            // copies the low byte of each character, that is correct for ASCII
+            value.getBytes(start, end, target.array(), target.arrayOffset() + target.position());
+            target.position(target.position() + length);
+        }
+        else
+        {
+            for (int i = start; i < end; i++)
+            {
+                target.put((byte) value.charAt(i));
+            }
+        }
+    }
+
+    /**
+     * @param value unencoded value
+     * @return index of the first character that must be escaped, the length of the value if none
+     */
+    int firstToEscape(String value)
+    {
+        return firstToEscape(value, window(value));
+    }
+
+    /**
+     * @param value unencoded value
+     * @return window for the Vector API scanner, null if the value is scanned scalar
+     */
+    private static Window window(String value)
+    {
+        if (SCANNER == null || value.length() < VECTOR_MIN_LENGTH)
+        {
+            return null;
+        }
+        return new Window();
+    }
+
+    /**
+     * @param value unencoded value
+     * @param window window of the value for the Vector API scanner or null
+     * @return index of the first character that must be escaped, the length of the value if none
+     */
+    private int firstToEscape(String value, Window window)
+    {
+        if (window != null)
+        {
+            return nextToEscape(value, window, 0);
+        }
+        int l = value.length();
+        for (int i = 0; i < l; i++)
+        {
+            char ch = value.charAt(i);
+            if (ch >= TABLE_SIZE || !allowed[ch])
+            {
+                return i;
+            }
+        }
+        return l;
+    }
+
+    /**
+     * Scans the value with the Vector API, the characters are copied once into the window.
+     * @param value unencoded value
+     * @param window window of the value, reloaded if the index is outside
+     * @param from index of the first character to scan
+     * @return index of the next character that must be escaped, the length of the value if none
+     */
+    private int nextToEscape(String value, Window window, int from)
+    {
+        int l = value.length();
+        int i = from;
+        while (i < l)
+        {
+            if (i < window.start || i >= window.end)
+            {
+                window.load(value, i);
+            }
+            int start = window.start;
+            int end = window.end;
+            char[] chars = window.chars;
+            // the scanner stops at a character to escape or at the tail shorter than a vector
+            int j = start + SCANNER.scan(chars, i - start, end - start, this);
+            if (j < end && end < l && isAllowed(chars[j - start]))
+            {
+                // the tail is scanned in the next window
+                window.load(value, j);
+                i = j;
+                continue;
+            }
+            for (; j < end; j++)
+            {
+                char ch = chars[j - start];
+                if (ch >= TABLE_SIZE || !allowed[ch])
+                {
+                    return j;
+                }
+            }
+            i = end;
+        }
+        return l;
+    }
+
+    /**
+     * @param window window of the value from {@link #firstToEscape(String, Window)} or null
+     */
+    private void encodeFrom(String value, int start, StringBuilder builder, Window window)
+    {
+        int l = value.length();
+        int i = start;
+        if (window != null)
+        {
+            while (i < l)
+            {
+                i = encodeCharacter(value, i, builder);
+                // copy the run of allowed characters in bulk
+                int next = nextToEscape(value, window, i);
+                builder.append(value, i, next);
+                i = next;
+            }
+            return;
+        }
+        while (i < l)
+        {
+            i = encodeCharacter(value, i, builder);
+        }
+    }
+
+    /**
+     * Encodes the character at the index, a surrogate pair is encoded as one code point.
+     * @return index of the next character
+     */
+    private int encodeCharacter(CharSequence value, int i, StringBuilder builder)
+    {
+        char ch = value.charAt(i);
+        if (ch < 0x80)
+        {
+            // see RFC 3986 for which characters must be encoded and which not
+            // https://datatracker.ietf.org/doc/html/rfc3986#appendix-A
+            if (allowed[ch])
+            {
+                builder.append(ch);
+            }
+            else if (spaceAsPlus && ch == ' ')
+            {
+                builder.append('+');
+            }
+            else
+            {
+                appendEscaped(ch, builder);
+            }
+        }
+        else if (ch < 0x800)
+        {
+            appendEscaped(0xC0 | (ch >> 6), builder);
+            appendEscaped(0x80 | (ch & 0x3F), builder);
+        }
+        else if (Character.isHighSurrogate(ch) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1)))
+        {
+            int codePoint = Character.toCodePoint(ch, value.charAt(i + 1));
+            appendEscaped(0xF0 | (codePoint >> 18), builder);
+            appendEscaped(0x80 | ((codePoint >> 12) & 0x3F), builder);
+            appendEscaped(0x80 | ((codePoint >> 6) & 0x3F), builder);
+            appendEscaped(0x80 | (codePoint & 0x3F), builder);
+            return i + 2;
+        }
+        else if (Character.isSurrogate(ch))
+        {
+            // malformed surrogate, String#getBytes(UTF_8) replaces it with '?'
+            appendEscaped('?', builder);
+        }
+        else
+        {
+            appendEscaped(0xE0 | (ch >> 12), builder);
+            appendEscaped(0x80 | ((ch >> 6) & 0x3F), builder);
+            appendEscaped(0x80 | (ch & 0x3F), builder);
+        }
+        return i + 1;
+    }
+
+    private static void appendEscaped(int byteValue, StringBuilder builder)
+    {
+        builder.append('%');
+        builder.append(HEX_CODE_UPPER[(byteValue >>> 4) & 0xf]);
+        builder.append(HEX_CODE_UPPER[byteValue & 0xf]);
+    }
+
+    private static int putEscaped(int byteValue, char[] target, int pos)
+    {
+        target[pos] = '%';
+        target[pos + 1] = HEX_CODE_UPPER[(byteValue >>> 4) & 0xf];
+        target[pos + 2] = HEX_CODE_UPPER[byteValue & 0xf];
+        return pos + 3;
+    }
+
+    private static void putEscaped(int byteValue, ByteBuffer target)
+    {
+        target.put((byte) '%');
+        target.put(HEX_BYTE_UPPER[(byteValue >>> 4) & 0xf]);
+        target.put(HEX_BYTE_UPPER[byteValue & 0xf]);
+    }
+
+    /**
+     * Streaming encoder, the encoded characters are collected in a buffer and appended to the target in blocks.
+     */
+    private final class EncodingWriter extends Writer
+    {
+        private static final int BUFFER_SIZE = 1024;
+        /**
+         * Maximal number of encoded characters of one code point
+         */
+        private static final int MAX_ENCODED_LENGTH = 12;
+
+        private final Appendable target;
+        private final URIEncodeEvent event = URIEvents.startEncode();
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int pos;
+        /**
+         * High surrogate at the end of the last chunk, 0 if none
+         */
+        private char highSurrogate;
+        private int inputLength;
+        private int encodedLength;
+        private int escapedBytes;
+        private boolean closed;
+
+        EncodingWriter(Appendable target)
+        {
+            this.target = target;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException
+        {
+            ensureOpen();
+            for (int i = offset; i < offset + length; i++)
+            {
+                put(chars[i]);
+            }
+        }
+
+        @Override
+        public void write(String chars, int offset, int length) throws IOException
+        {
+            append(chars, offset, offset + length);
+        }
+
+        @Override
+        public Writer append(CharSequence chars) throws IOException
+        {
+            return append(chars, 0, chars.length());
+        }
+
+        @Override
+        public Writer append(CharSequence chars, int start, int end) throws IOException
+        {
+            ensureOpen();
+            for (int i = start; i < end; i++)
+            {
+                put(chars.charAt(i));
+            }
+            return this;
+        }
+
+        private void put(char ch) throws IOException
+        {
+            if (pos > BUFFER_SIZE - MAX_ENCODED_LENGTH)
+            {
+                flushBuffer();
+            }
+            int start = pos;
+            inputLength++;
+            if (highSurrogate != 0)
+            {
+                char high = highSurrogate;
+                highSurrogate = 0;
+                if (Character.isLowSurrogate(ch))
+                {
+                    pos = putCodePoint(Character.toCodePoint(high, ch), buffer, pos);
+                    escapedBytes += 4;
+                    return;
+                }
+                pos = putEscaped('?', buffer, pos);
+            }
+            if (Character.isHighSurrogate(ch))
+            {
+                highSurrogate = ch;
+            }
+            else
+            {
+                pos = putChar(ch, buffer, pos);
+            }
+            // each escaped byte takes three characters, an unescaped character one
+            escapedBytes += (pos - start) / 3;
+        }
+
+        private void flushBuffer() throws IOException
+        {
+            if (target instanceof StringBuilder builder)
+            {
+                builder.append(buffer, 0, pos);
+            }
+            else if (target instanceof Writer writer)
+            {
+                writer.write(buffer, 0, pos);
+            }
+            else
+            {
+                target.append(CharBuffer.wrap(buffer, 0, pos));
+            }
+            encodedLength += pos;
+            pos = 0;
+        }
+
+        private void ensureOpen() throws IOException
+        {
+            if (closed)
+            {
+                throw new IOException("Writer is closed");
+            }
+        }
+
+        /**
+         * Appends the encoded characters to the target, a high surrogate at the end is kept for the next chunk.
+         */
+        @Override
+        public void flush() throws IOException
+        {
+            ensureOpen();
+            flushBuffer();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if (closed)
+            {
+                return;
+            }
+            if (highSurrogate != 0)
+            {
+                highSurrogate = 0;
+                pos = putEscaped('?', buffer, pos);
+                escapedBytes++;
+            }
+            flushBuffer();
+            closed = true;
+            record(event, inputLength, encodedLength, escapedBytes);
+        }
+    }
+}
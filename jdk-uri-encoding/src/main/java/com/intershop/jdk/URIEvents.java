@@ -0,0 +1,52 @@
+package com.intershop.jdk;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Starts the flight recorder events of the {@link URLBuilder} and the {@link URIEncoder}.
+ *
+ * The event classes are not loaded before the flight recorder is initialized: the first load of an event class
+ * initializes the internals of the flight recorder, which delays the first URL of a short-lived process by a few
+ * hundred milliseconds. If a recording is started later, the events are created from then on.
+ */
+final class URIEvents
+{
+    private URIEvents()
+    {
+    }
+
+    /**
+     * @return started event or null if the flight recorder is not initialized
+     */
+    static URIBuildEvent startBuild()
+    {
+        return FlightRecorder.isInitialized() ? URIBuildEvent.start() : null;
+    }
+
+    /**
+     * Reports the built URL to the build listener and the flight recorder, if any of them is interested.
+     * @param event event returned by {@link #startBuild()}
+     * @param segmentCount number of path elements
+     * @param length number of characters of the encoded URL
+     */
+    static void endBuild(URIBuildEvent event, int segmentCount, int length)
+    {
+        URIBuildListener listener = URIBuilder.getBuildListener();
+        if (listener != null)
+        {
+            listener.built(segmentCount, length);
+        }
+        if (event != null)
+        {
+            event.end(segmentCount, length);
+        }
+    }
+
+    /**
+     * @return started event or null if the flight recorder is not initialized
+     */
+    static URIEncodeEvent startEncode()
+    {
+        return FlightRecorder.isInitialized() ? URIEncodeEvent.start() : null;
+    }
+}
@@ -0,0 +1,144 @@
+package com.intershop.jdk;
+
+/**
+ * Resolution of relative references against an encoded base URI (RFC 3986 section 5.2).
+ *
+ * The components of the base are known by the {@link EncodedURI}, the reference is split once. The target is written
+ * into one buffer, the dot-segments are removed in place. Escapes are not decoded, so an encoded slash stays
+ * in its path element.
+ */
+final class URIResolver
+{
+    private URIResolver()
+    {
+    }
+
+    /**
+     * @param base absolute base URI
+     * @param reference encoded URI reference
+     * @return target URI
+     */
+    static EncodedURI resolve(EncodedURI base, String reference)
+    {
+        int l = reference.length();
+        // the characters of a scheme don't contain '/', '?' and '#', so the ':' is in front of the other components
+        int schemeEnd = CanonicalURI.schemeEnd(reference);
+        int pathStart = schemeEnd + 1;
+        String authority = null;
+        if (reference.startsWith("//", pathStart))
+        {
+            int authorityEnd = CanonicalURI.indexOfAny(reference, "/?#", pathStart + 2, l);
+            authority = reference.substring(pathStart + 2, authorityEnd);
+            pathStart = authorityEnd;
+        }
+        int pathEnd = CanonicalURI.indexOfAny(reference, "?#", pathStart, l);
+        String rest = reference.substring(pathEnd);
+        if (schemeEnd >= 0)
+        {
+            return compose(null, reference.substring(0, schemeEnd), authority, reference, pathStart, pathEnd, "", rest);
+        }
+        if (authority != null)
+        {
+            return compose(null, base.getScheme(), authority, reference, pathStart, pathEnd, "", rest);
+        }
+        String baseQuery = base.getRawQuery();
+        if (pathEnd == pathStart && !rest.startsWith("?") && baseQuery != null)
+        {
+            // a reference without path and query keeps the query of the base
+            return compose(base, base.getScheme(), base.getRawAuthority(), reference, pathStart, pathEnd, "?" + baseQuery, rest);
+        }
+        return compose(base, base.getScheme(), base.getRawAuthority(), reference, pathStart, pathEnd, "", rest);
+    }
+
+    /**
+     * Resolves the encoded path of a relative URL builder, a path segment with ':' is not mistaken for a scheme.
+     * @param base absolute base URI
+     * @param path encoded path
+     * @return target URI
+     */
+    static EncodedURI resolvePath(EncodedURI base, String path)
+    {
+        String baseQuery = base.getRawQuery();
+        String rest = path.isEmpty() && baseQuery != null ? "?" + baseQuery : "";
+        return compose(base, base.getScheme(), base.getRawAuthority(), path, 0, path.length(), rest, "");
+    }
+
+    /**
+     * Writes the target URI into one buffer.
+     * @param base base URI if the reference path is merged with the base path, null if the reference path replaces it
+     * @param reference reference containing the path
+     * @param pathStart start of the reference path
+     * @param pathEnd end of the reference path
+     * @param baseQuery query of the base including '?' or empty
+     * @param rest query and fragment of the reference including the delimiters
+     */
+    private static EncodedURI compose(EncodedURI base, String scheme, String authority, String reference, int pathStart, int pathEnd,
+                    String baseQuery, String rest)
+    {
+        String basePath = base == null ? "" : base.getRawPath();
+        int capacity = (scheme == null ? 0 : scheme.length() + 1) + (authority == null ? 0 : authority.length() + 2)
+                        + basePath.length() + 1 + (pathEnd - pathStart) + baseQuery.length() + rest.length();
+        char[] target = new char[capacity];
+        int pos = 0;
+        if (scheme != null)
+        {
+            pos = put(scheme, target, pos);
+            target[pos++] = ':';
+        }
+        if (authority != null)
+        {
+            target[pos++] = '/';
+            target[pos++] = '/';
+            pos = put(authority, target, pos);
+        }
+        int targetPathStart = pos;
+        if (base != null && pathEnd > pathStart && reference.charAt(pathStart) != '/')
+        {
+            // merge: the reference replaces the last segment of the base path
+            if (authority != null && basePath.isEmpty())
+            {
+                target[pos++] = '/';
+            }
+            else
+            {
+                int lastSlash = basePath.lastIndexOf('/');
+                basePath.getChars(0, lastSlash + 1, target, pos);
+                pos += lastSlash + 1;
+            }
+        }
+        if (base != null && pathEnd == pathStart)
+        {
+            // an empty reference path keeps the path of the base as it is
+            pos = put(basePath, target, pos);
+        }
+        else
+        {
+            reference.getChars(pathStart, pathEnd, target, pos);
+            pos = CanonicalURI.removeDotSegments(target, targetPathStart, pos + pathEnd - pathStart);
+        }
+        int queryStart = -1;
+        int fragmentStart = -1;
+        if (!baseQuery.isEmpty())
+        {
+            queryStart = pos + 1;
+            pos = put(baseQuery, target, pos);
+        }
+        int fragment = rest.indexOf('#');
+        if (fragment != 0 && !rest.isEmpty())
+        {
+            queryStart = pos + 1;
+        }
+        if (fragment >= 0)
+        {
+            fragmentStart = pos + fragment + 1;
+        }
+        pos = put(rest, target, pos);
+        return new EncodedURI(new String(target, 0, pos), scheme, authority, targetPathStart, queryStart, fragmentStart, null, false);
+    }
+
+    private static int put(String value, char[] target, int pos)
+    {
+        value.getChars(0, value.length(), target, pos);
+        return pos + value.length();
+    }
+}
@@ -0,0 +1,288 @@
+package com.intershop.jdk;
+
+import java.util.Arrays;
+
+/**
+ * Dispatches encoded request paths to handlers, e.g. /rest/customers/2024%2F1234/addresses/shipping%20address.
+ *
+ * The routes are defined by path elements like a {@link URITemplate}, {@link URIBuilder#PLACEHOLDER} marks a variable
+ * path element. The constant path elements are encoded once and stored in a radix trie, the raw path is matched
+ * character by character without decoding it. So an encoded slash (%2F) is part of a path element and not a separator.
+ * The costs of a match depend on the length of the path, not on the number of routes.
+ * <pre>
+ * URIRouter&lt;Handler&gt; router = new URIRouter&lt;&gt;();
+ * router.addRoute(addressHandler, "rest", "customers", URIBuilder.PLACEHOLDER, "addresses", URIBuilder.PLACEHOLDER);
+ * URIRouter.Match&lt;Handler&gt; match = router.match(rawPath);
+ * </pre>
+ * A constant path element matches its encoding by the {@link URIEncoder#PATH_SEGMENT}, a constant path element wins
+ * over a variable one. The routes are added during initialization, the matching is thread-safe if no routes
+ * are added concurrently.
+ *
+ * @param <T> type of the handlers
+ */
+public final class URIRouter<T>
+{
+    private final Node<T> root = new Node<>("");
+    private int maxVariableCount;
+    private int size;
+
+    /**
+     * Adds a route.
+     * @param handler handler of the matching paths
+     * @param pathElements unencoded constant path elements and {@link URIBuilder#PLACEHOLDER} for variable path elements
+     * @return this router
+     * @throws IllegalArgumentException if the route is defined already
+     */
+    public URIRouter<T> addRoute(T handler, String... pathElements)
+    {
+        if (handler == null)
+        {
+            throw new IllegalArgumentException("Handler must not be null");
+        }
+        Node<T> node = root;
+        int variableCount = 0;
+        StringBuilder literal = new StringBuilder("/");
+        for (int i = 0; i < pathElements.length; i++)
+        {
+            if (i > 0)
+            {
+                literal.append('/');
+            }
+            if (pathElements[i] == URIBuilder.PLACEHOLDER)
+            {
+                node = node.insert(literal);
+                literal.setLength(0);
+                if (node.variable == null)
+                {
+                    node.variable = new Node<>("");
+                }
+                node = node.variable;
+                variableCount++;
+            }
+            else
+            {
+                URIEncoder.PATH_SEGMENT.encode(pathElements[i], literal);
+            }
+        }
+        node = node.insert(literal);
+        if (node.handler != null)
+        {
+            throw new IllegalArgumentException("Route is defined already: " + String.join("/", pathElements));
+        }
+        node.handler = handler;
+        node.variableCount = variableCount;
+        maxVariableCount = Math.max(maxVariableCount, variableCount);
+        size++;
+        return this;
+    }
+
+    /**
+     * @return number of routes
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Finds the handler of an encoded path.
+     * @param rawPath encoded path starting with '/', without query and fragment
+     * @return handler with the decoded variable path elements or null if no route matches
+     * @throws IllegalArgumentException if a variable path element contains malformed escapes
+     */
+    public Match<T> match(String rawPath)
+    {
+        int[] bounds = new int[2 * maxVariableCount];
+        Node<T> node = match(root, rawPath, 0, bounds, 0);
+        if (node == null)
+        {
+            return null;
+        }
+        String[] variables = new String[node.variableCount];
+        for (int i = 0; i < variables.length; i++)
+        {
+            variables[i] = URIDecoder.decode(rawPath, bounds[2 * i], bounds[2 * i + 1]);
+        }
+        return new Match<>(node.handler, variables);
+    }
+
+    /**
+     * Matches the rest of the path behind the label of the node, the constant path elements are tried first.
+     * @param bounds start and end index of the matched variable path elements
+     * @param variable number of variable path elements matched before
+     * @return node with the handler or null
+     */
+    private static <T> Node<T> match(Node<T> node, String path, int pos, int[] bounds, int variable)
+    {
+        int l = path.length();
+        while (true)
+        {
+            if (pos == l)
+            {
+                return node.handler == null ? null : node;
+            }
+            Node<T> child = node.child(path.charAt(pos));
+            if (child != null && path.startsWith(child.label, pos))
+            {
+                if (node.variable == null)
+                {
+                    // nothing to try on a mismatch, continue without recursion
+                    node = child;
+                    pos += child.label.length();
+                    continue;
+                }
+                Node<T> result = match(child, path, pos + child.label.length(), bounds, variable);
+                if (result != null)
+                {
+                    return result;
+                }
+            }
+            if (node.variable == null)
+            {
+                return null;
+            }
+            int end = path.indexOf('/', pos);
+            if (end < 0)
+            {
+                end = l;
+            }
+            if (end == pos)
+            {
+                // a variable path element is not empty
+                return null;
+            }
+            bounds[2 * variable] = pos;
+            bounds[2 * variable + 1] = end;
+            node = node.variable;
+            pos = end;
+            variable++;
+        }
+    }
+
+    /**
+     * Result of a match.
+     * @param <T> type of the handler
+     */
+    public static final class Match<T>
+    {
+        private final T handler;
+        private final String[] variables;
+
+        private Match(T handler, String[] variables)
+        {
+            this.handler = handler;
+            this.variables = variables;
+        }
+
+        /**
+         * @return handler of the route
+         */
+        public T getHandler()
+        {
+            return handler;
+        }
+
+        /**
+         * @return decoded variable path elements in the order of the placeholders
+         */
+        public String[] getVariables()
+        {
+            return variables.clone();
+        }
+
+        /**
+         * @param index index of the placeholder
+         * @return decoded variable path element
+         */
+        public String getVariable(int index)
+        {
+            return variables[index];
+        }
+    }
+
+    /**
+     * Node of the radix trie. The children are sorted by the first character of their label.
+     * The label of a variable child is empty, it starts behind the variable path element.
+     */
+    private static final class Node<T>
+    {
+        @SuppressWarnings("rawtypes")
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private String label;
+        private char[] firstChars = new char[0];
+        @SuppressWarnings("unchecked")
+        private Node<T>[] children = NO_CHILDREN;
+        private Node<T> variable;
+        private T handler;
+        /**
+         * Number of variable path elements of the route of the handler
+         */
+        private int variableCount;
+
+        Node(String label)
+        {
+            this.label = label;
+        }
+
+        Node<T> child(char ch)
+        {
+            int index = Arrays.binarySearch(firstChars, ch);
+            return index < 0 ? null : children[index];
+        }
+
+        /**
+         * Inserts the literal behind this node, the label of a child is split at the first difference.
+         * @param literal encoded constant part of a route
+         * @return node of the end of the literal
+         */
+        Node<T> insert(CharSequence literal)
+        {
+            Node<T> node = this;
+            int start = 0;
+            while (start < literal.length())
+            {
+                char ch = literal.charAt(start);
+                int index = Arrays.binarySearch(node.firstChars, ch);
+                if (index < 0)
+                {
+                    Node<T> child = new Node<>(literal.subSequence(start, literal.length()).toString());
+                    node.addChild(-index - 1, ch, child);
+                    return child;
+                }
+                Node<T> child = node.children[index];
+                int common = 0;
+                int max = Math.min(child.label.length(), literal.length() - start);
+                while (common < max && child.label.charAt(common) == literal.charAt(start + common))
+                {
+                    common++;
+                }
+                if (common < child.label.length())
+                {
+                    // split the child, the new node gets the common prefix
+                    Node<T> prefix = new Node<>(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    prefix.addChild(0, child.label.charAt(0), child);
+                    node.children[index] = prefix;
+                    child = prefix;
+                }
+                node = child;
+                start += common;
+            }
+            return node;
+        }
+
+        private void addChild(int index, char ch, Node<T> child)
+        {
+            char[] newFirstChars = new char[firstChars.length + 1];
+            System.arraycopy(firstChars, 0, newFirstChars, 0, index);
+            newFirstChars[index] = ch;
+            System.arraycopy(firstChars, index, newFirstChars, index + 1, firstChars.length - index);
+            Node<T>[] newChildren = Arrays.copyOf(children, children.length + 1);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            newChildren[index] = child;
+            firstChars = newFirstChars;
+            children = newChildren;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.intershop.jdk;
+
+import java.net.URI;
+
+/**
+ * Precompiled URL with variable path elements, e.g. https://server/rest/customers/{id}/addresses/{aid}.
+ *
+ * The constant parts are encoded once at compile time, an expansion encodes the variable path elements only.
+ * Instances are immutable and can be shared between threads (e.g. as static final field).
+ * <pre>
+ * static final URITemplate ADDRESS = URIBuilder.compileTemplate("https", "server",
+ *                 "rest", "customers", URIBuilder.PLACEHOLDER, "addresses", URIBuilder.PLACEHOLDER);
+ * URI uri = ADDRESS.expandURI("2024/1234", "shipping address");
+ * </pre>
+ */
+public final class URITemplate
+{
+    /**
+     * Encoded constant parts, the variable path elements are inserted between them.
+     */
+    private final char[][] literals;
+    private final int literalLength;
+
+    URITemplate(String scheme, String server, String[] pathElements)
+    {
+        int variableCount = 0;
+        for (String element : pathElements)
+        {
+            if (element == URIBuilder.PLACEHOLDER)
+            {
+                variableCount++;
+            }
+        }
+        literals = new char[variableCount + 1][];
+
+        StringBuilder b = new StringBuilder();
+        if (scheme != null)
+        {
+            b.append(scheme).append(':');
+        }
+        if (server != null)
+        {
+            b.append("//").append(server);
+        }
+        b.append('/');
+        int literal = 0;
+        int length = 0;
+        for (int i = 0; i < pathElements.length; i++)
+        {
+            if (i > 0)
+            {
+                b.append('/');
+            }
+            if (pathElements[i] == URIBuilder.PLACEHOLDER)
+            {
+                literals[literal++] = b.toString().toCharArray();
+                length += b.length();
+                b.setLength(0);
+            }
+            else
+            {
+                URIEncoder.PATH_SEGMENT.encode(pathElements[i], b);
+            }
+        }
+        literals[literal] = b.toString().toCharArray();
+        literalLength = length + b.length();
+    }
+
+    /**
+     * @return number of variable path elements
+     */
+    public int getVariableCount()
+    {
+        return literals.length - 1;
+    }
+
+    /**
+     * Encodes the variable path elements and inserts them into the template.
+     * @param variables unencoded path elements in the order of the placeholders
+     * @return encoded URL
+     */
+    public String expand(String... variables)
+    {
+        if (variables.length != literals.length - 1)
+        {
+            throw new IllegalArgumentException("Template requires " + (literals.length - 1) + " path elements, but got " + variables.length);
+        }
+        int length = literalLength;
+        for (String variable : variables)
+        {
+            length += URIEncoder.PATH_SEGMENT.encodedLength(variable);
+        }
+        char[] buffer = new char[length];
+        int pos = 0;
+        for (int i = 0; i < variables.length; i++)
+        {
+            char[] literal = literals[i];
+            System.arraycopy(literal, 0, buffer, pos, literal.length);
+            pos = URIEncoder.PATH_SEGMENT.encode(variables[i], buffer, pos + literal.length);
+        }
+        char[] literal = literals[variables.length];
+        System.arraycopy(literal, 0, buffer, pos, literal.length);
+        return new String(buffer);
+    }
+
+    /**
+     * @param variables unencoded path elements in the order of the placeholders
+     * @return encoded URL
+     * @see #expand(String...)
+     */
+    public URI expandURI(String... variables)
+    {
+        return URI.create(expand(variables));
+    }
+}
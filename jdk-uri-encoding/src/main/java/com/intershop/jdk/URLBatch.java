@@ -0,0 +1,211 @@
+package com.intershop.jdk;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Bulk creation of URLs, e.g. for sitemaps and product feeds.
+ *
+ * All URLs share the encoded URI of the base builder, each row of path elements is appended to it.
+ * The rows are encoded in parallel with the fork-join pool, each leaf task reuses one scratch buffer.
+ * The results are in the order of the rows. Each URL is reported to the build listener and the flight recorder
+ * like a URL of {@link URLBuilder.URLBuilderWithServerAndPath#buildString()}.
+ * <pre>
+ * var products = URIBuilder.createURL().scheme("https").server("servername").pathElements("rest", "products");
+ * List&lt;String&gt; urls = URLBatch.buildStrings(products, rows);
+ * </pre>
+ */
+public final class URLBatch
+{
+    /**
+     * Number of rows that are encoded before the results are passed to a sink.
+     */
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    /**
+     * Minimal number of rows of a leaf task.
+     */
+    private static final int MIN_LEAF_SIZE = 256;
+
+    /**
+     * Maximal capacity of a scratch buffer that is kept by a thread of a stream, a longer buffer is replaced.
+     */
+    private static final int MAX_SCRATCH_CAPACITY = 4096;
+
+    /**
+     * Scratch buffer per thread for the stream variant, the threads of a parallel stream are the workers of its pool.
+     */
+    private static final ThreadLocal<StringBuilder> SCRATCH = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    private URLBatch()
+    {
+    }
+
+    /**
+     * Creates the encoded URLs for all rows.
+     * @param base builder with the common part of all URLs
+     * @param rows unencoded path elements per URL
+     * @return encoded URLs in the order of the rows
+     */
+    public static List<String> buildStrings(URLBuilder.URLBuilderWithServerAndPath base, List<String[]> rows)
+    {
+        return buildStrings(base, rows, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates the encoded URLs for all rows.
+     * @param base builder with the common part of all URLs
+     * @param rows unencoded path elements per URL
+     * @param pool pool used for the encoding
+     * @return encoded URLs in the order of the rows
+     */
+    public static List<String> buildStrings(URLBuilder.URLBuilderWithServerAndPath base, List<String[]> rows, ForkJoinPool pool)
+    {
+        // the tasks access the rows by index, a copy avoids the linear access of a linked list
+        String[][] array = rows.toArray(new String[0][]);
+        String[] results = new String[array.length];
+        encode(base, array, array.length, results, pool);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Creates the encoded URLs for all rows and passes them in the order of the rows to the sink.
+     * The rows are encoded block by block, so the memory doesn't depend on the number of rows.
+     * @param base builder with the common part of all URLs
+     * @param rows unencoded path elements per URL
+     * @param sink receiver of the encoded URLs, called by the calling thread only
+     */
+    public static void buildStrings(URLBuilder.URLBuilderWithServerAndPath base, List<String[]> rows, Consumer<? super String> sink)
+    {
+        buildStrings(base, rows, sink, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates the encoded URLs for all rows and passes them in the order of the rows to the sink.
+     * The rows are encoded block by block, so the memory doesn't depend on the number of rows.
+     * @param base builder with the common part of all URLs
+     * @param rows unencoded path elements per URL
+     * @param sink receiver of the encoded URLs, called by the calling thread only
+     * @param pool pool used for the encoding
+     */
+    public static void buildStrings(URLBuilder.URLBuilderWithServerAndPath base, List<String[]> rows, Consumer<? super String> sink,
+                    ForkJoinPool pool)
+    {
+        int blockSize = Math.min(BLOCK_SIZE, rows.size());
+        String[][] block = new String[blockSize][];
+        String[] results = new String[blockSize];
+        Iterator<String[]> iterator = rows.iterator();
+        while (iterator.hasNext())
+        {
+            int count = 0;
+            while (count < blockSize && iterator.hasNext())
+            {
+                block[count++] = iterator.next();
+            }
+            encode(base, block, count, results, pool);
+            for (int i = 0; i < count; i++)
+            {
+                sink.accept(results[i]);
+                results[i] = null;
+                block[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Creates the encoded URLs for a stream of rows, the stream is encoded in parallel if it is a parallel stream.
+     * A spliterator source can be passed with {@link java.util.stream.StreamSupport#stream(java.util.Spliterator, boolean)}.
+     * Each thread of the stream reuses one scratch buffer.
+     * @param base builder with the common part of all URLs
+     * @param rows unencoded path elements per URL
+     * @return encoded URLs in the encounter order of the rows
+     */
+    public static Stream<String> buildStrings(URLBuilder.URLBuilderWithServerAndPath base, Stream<String[]> rows)
+    {
+        // encode the common part once, before the threads share it
+        base.encodeString();
+        return rows.map(row -> build(base, row));
+    }
+
+    /**
+     * Creates the encoded URL of one row in the scratch buffer of the current thread.
+     */
+    private static String build(URLBuilder.URLBuilderWithServerAndPath base, String[] row)
+    {
+        StringBuilder scratch = SCRATCH.get();
+        String url = build(base, row, scratch);
+        if (scratch.capacity() > MAX_SCRATCH_CAPACITY)
+        {
+            SCRATCH.remove();
+        }
+        return url;
+    }
+
+    /**
+     * Creates the encoded URL of one row in the given scratch buffer and reports it as built URL.
+     */
+    private static String build(URLBuilder.URLBuilderWithServerAndPath base, String[] row, StringBuilder scratch)
+    {
+        URIBuildEvent event = URIEvents.startBuild();
+        scratch.setLength(0);
+        String url = base.appendExtended(row, scratch).toString();
+        URIEvents.endBuild(event, base.size() + row.length, url.length());
+        return url;
+    }
+
+    private static void encode(URLBuilder.URLBuilderWithServerAndPath base, String[][] rows, int count, String[] results,
+                    ForkJoinPool pool)
+    {
+        if (count == 0)
+        {
+            return;
+        }
+        // encode the common part once, before the tasks share it
+        base.encodeString();
+        int leafSize = Math.max(MIN_LEAF_SIZE, count / (pool.getParallelism() * 8));
+        pool.invoke(new EncodeTask(base, rows, results, 0, count, leafSize));
+    }
+
+    @SuppressWarnings("serial")
+    private static final class EncodeTask extends RecursiveAction
+    {
+        private final URLBuilder.URLBuilderWithServerAndPath base;
+        private final String[][] rows;
+        private final String[] results;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        EncodeTask(URLBuilder.URLBuilderWithServerAndPath base, String[][] rows, String[] results, int from, int to, int leafSize)
+        {
+            this.base = base;
+            this.rows = rows;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from > leafSize)
+            {
+                int middle = (from + to) >>> 1;
+                invokeAll(new EncodeTask(base, rows, results, from, middle, leafSize),
+                          new EncodeTask(base, rows, results, middle, to, leafSize));
+                return;
+            }
+            StringBuilder scratch = new StringBuilder(base.encodedLength() + 64);
+            for (int i = from; i < to; i++)
+            {
+                results[i] = build(base, rows[i], scratch);
+            }
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.intershop.jdk;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.stream.Stream;
 
 /**
  * Example of a URL Builder.
@@ -23,10 +27,80 @@ public class URLBuilder
             this.scheme = scheme;
         }
 
+        /**
+         * @param server authority of the URL, appended as it is; the ASCII writers reject a server with non-ASCII characters
+         * @return builder with server
+         * @see #host(String)
+         */
         public URLBuilderWithServer server(String server)
         {
             return new URLBuilderWithServer(scheme, server);
         }
+
+        /**
+         * Validates an IP address or converts an internationalized host name to Punycode.
+         * The converted authority is kept by the builder, so a reused builder converts the host once.
+         * @param host host name, IPv4 or IPv6 address, e.g. "münchen.example" or "::1"
+         * @return builder with host
+         * @throws IllegalArgumentException if the host is not valid
+         */
+        public URLBuilderWithHost host(String host)
+        {
+            return new URLBuilderWithHost(scheme, URIAuthority.toURLHost(host), -1, null);
+        }
+    }
+
+    /**
+     * Authority stage with host, port and user information, the authority is created once per builder.
+     */
+    public static class URLBuilderWithHost
+    {
+        private final String scheme;
+        private final String host;
+        private final int port;
+        private final String userInfo;
+        private final String authority;
+
+        private URLBuilderWithHost(String scheme, String host, int port, String userInfo)
+        {
+            this.scheme = scheme;
+            this.host = host;
+            this.port = port;
+            this.userInfo = userInfo;
+            this.authority = URIAuthority.authority(userInfo, host, port);
+        }
+
+        /**
+         * @param port port number
+         * @return builder with port
+         * @throws IllegalArgumentException if the port is out of range
+         */
+        public URLBuilderWithHost port(int port)
+        {
+            return new URLBuilderWithHost(scheme, host, URIAuthority.checkPort(port), userInfo);
+        }
+
+        /**
+         * @param userInfo unencoded user information, e.g. a user name
+         * @return builder with user information
+         */
+        public URLBuilderWithHost userInfo(String userInfo)
+        {
+            return new URLBuilderWithHost(scheme, host, port, userInfo);
+        }
+
+        /**
+         * @return encoded authority, e.g. "user@xn--mnchen-3ya.example:8443"
+         */
+        public String getAuthority()
+        {
+            return authority;
+        }
+
+        public URLBuilderWithServerAndPath pathElements(String... elements)
+        {
+            return new URLBuilderWithServerAndPath(scheme, authority, true, elements);
+        }
     }
 
     public static class URLBuilderWithServer
@@ -65,49 +139,644 @@ public class URLBuilder
         }
     }
 
+    /**
+     * Path builder, each instance extends its parent by some path elements.
+     * The encoded URI of an instance is cached, so an extension encodes the new path elements only.
+     */
     public static class URLBuilderWithServerAndPath
     {
+        /**
+         * Maximal size of the chunk that streams the encoded URI to an output stream
+         */
+        private static final int STREAM_CHUNK_SIZE = 512;
+
         private final String scheme;
         private final String server;
         private final boolean isAbsolute;
+        private final URLBuilderWithServerAndPath parent;
         private final String[] pathElements;
+        private final int size;
+        /**
+         * Encoded path elements of this instance (without the parent), if provided by a relative builder
+         */
+        private final String encodedPathElements;
+        /**
+         * Cached encoded URI, no synchronization necessary, because a string is immutable
+         */
+        private String encoded;
 
         private URLBuilderWithServerAndPath(String scheme, String server, boolean isAbsolute, String[] pathElements)
+        {
+            this(scheme, server, isAbsolute, null, pathElements, null);
+        }
+
+        private URLBuilderWithServerAndPath(String scheme, String server, boolean isAbsolute, URLBuilderWithServerAndPath parent,
+                        String[] pathElements, String encodedPathElements)
         {
             this.scheme = scheme;
             this.server = server;
             this.isAbsolute = isAbsolute;
+            this.parent = parent;
             this.pathElements = pathElements;
+            this.size = (parent == null ? 0 : parent.size) + pathElements.length;
+            this.encodedPathElements = encodedPathElements;
         }
 
+        /**
+         * @return encoded URI, parsed by {@link URI#create(String)}
+         */
         public URI build()
         {
-            StringBuilder b = new StringBuilder();
-            if (scheme != null)
+            return URI.create(buildString());
+        }
+
+        /**
+         * @return encoded URI with its components, without parsing it again
+         */
+        public EncodedURI buildEncoded()
+        {
+            return new EncodedURI(buildString(), scheme, server, getHeadLength(), getPathElements());
+        }
+
+        /**
+         * @return encoded URI as string, e.g. for an HTTP request line or an HTML link
+         */
+        public String buildString()
+        {
+            URIBuildEvent event = URIEvents.startBuild();
+            String result = encodeString();
+            URIEvents.endBuild(event, size, result.length());
+            return result;
+        }
+
+        /**
+         * Same as {@link #buildString()}, but not reported as built URL, e.g. for the prefix of an extended builder.
+         * @return encoded URI as string
+         */
+        String encodeString()
+        {
+            String result = encoded;
+            if (result == null)
+            {
+                if (parent != null && pathElements.length == 0)
+                {
+                    result = parent.encodeString();
+                }
+                else
+                {
+                    URLWriter writer;
+                    if (parent == null)
+                    {
+                        writer = new URLWriter(null, getHeadLength() + 1 + 16 * pathElements.length).head(scheme, server, isAbsolute);
+                    }
+                    else
+                    {
+                        writer = new URLWriter(null, parent.encodeString().length() + 16 * pathElements.length).reset(parent);
+                    }
+                    if (encodedPathElements != null)
+                    {
+                        writer.appendEncoded(encodedPathElements, pathElements.length);
+                    }
+                    else
+                    {
+                        writer.segments(pathElements);
+                    }
+                    result = writer.toString();
+                }
+                encoded = result;
+            }
+            return result;
+        }
+
+        /**
+         * @return number of path elements including the path elements of the parents
+         */
+        int size()
+        {
+            return size;
+        }
+
+        /**
+         * Appends the encoded URI of this builder extended by the given path elements, without creating the extended builder.
+         * @param elements unencoded path elements
+         * @param b target of the encoded URI
+         * @return the given builder
+         */
+        StringBuilder appendExtended(String[] elements, StringBuilder b)
+        {
+            b.append(encodeString());
+            if (size > 0 && elements.length > 0)
+            {
+                b.append('/');
+            }
+            return URIBuilder.combinePathElements('/', elements, b);
+        }
+
+        /**
+         * Calculates the length of the encoded URI without encoding it, e.g. to size or reject a buffer before writing.
+         * @return number of ASCII characters of the encoded URI
+         */
+        public int encodedLength()
+        {
+            String result = encoded;
+            if (result != null)
+            {
+                return result.length();
+            }
+            if (parent != null && pathElements.length == 0)
+            {
+                return parent.encodedLength();
+            }
+            int length = parent == null ? getHeadLength() + (isAbsolute ? 1 : 0) : parent.encodedLength() + (parent.size > 0 ? 1 : 0);
+            if (encodedPathElements != null)
+            {
+                return length + encodedPathElements.length();
+            }
+            for (int i = 0; i < pathElements.length; i++)
+            {
+                length += URIEncoder.PATH_SEGMENT.encodedLength(pathElements[i]);
+            }
+            // separators between the path elements
+            return length + Math.max(0, pathElements.length - 1);
+        }
+
+        /**
+         * Writes the encoded URI as ASCII bytes into the buffer at its current position.
+         * Nothing is written, if the remaining space of the buffer is too small.
+         * @param target target buffer, e.g. a pooled direct buffer for an HTTP request line
+         * @throws BufferOverflowException if the encoded URI doesn't fit into the buffer
+         * @throws IllegalArgumentException if the scheme or the server contains non-ASCII characters,
+         *         see {@link URLBuilderWithScheme#host(String)}
+         */
+        public void writeTo(ByteBuffer target)
+        {
+            URIBuildEvent event = URIEvents.startBuild();
+            checkASCII();
+            int length = encodedLength();
+            if (target.remaining() < length)
+            {
+                throw new BufferOverflowException();
+            }
+            write(target);
+            URIEvents.endBuild(event, size, length);
+        }
+
+        /**
+         * Writes the encoded URI as ASCII bytes into the array.
+         * @param target target array
+         * @param offset position of the first byte in the target
+         * @return position after the last written byte
+         * @throws BufferOverflowException if the encoded URI doesn't fit into the array
+         * @throws IllegalArgumentException if the scheme or the server contains non-ASCII characters
+         */
+        public int writeTo(byte[] target, int offset)
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(target, offset, target.length - offset);
+            writeTo(buffer);
+            return buffer.position();
+        }
+
+        /**
+         * Writes the encoded URI as ASCII bytes to the stream. The parts of the URI are streamed through a small chunk,
+         * the encoded URI is not copied as a whole.
+         * @param out target stream
+         * @throws IOException if the stream fails
+         * @throws IllegalArgumentException if the scheme or the server contains non-ASCII characters
+         */
+        public void writeTo(OutputStream out) throws IOException
+        {
+            URIBuildEvent event = URIEvents.startBuild();
+            checkASCII();
+            int length = encodedLength();
+            ByteBuffer chunk = ByteBuffer.allocate(Math.min(length, STREAM_CHUNK_SIZE));
+            write(chunk, out);
+            flush(chunk, out);
+            URIEvents.endBuild(event, size, length);
+        }
+
+        /**
+         * Scheme and server are appended as they are, so the low bytes of non-ASCII characters would be written
+         * as invalid URI bytes. A host converted by {@link URLBuilderWithScheme#host(String)} is always ASCII.
+         * @throws IllegalArgumentException if the scheme or the server contains non-ASCII characters
+         */
+        void checkASCII()
+        {
+            if (!isASCII(scheme))
             {
-                b.append(scheme).append(":");
+                throw new IllegalArgumentException("Scheme is not ASCII: " + scheme);
             }
-            if (server != null)
+            if (!isASCII(server))
             {
-                b.append("//").append(server);
+                throw new IllegalArgumentException("Server is not ASCII, use host(String) to convert it: " + server);
             }
-            if (isAbsolute)
+        }
+
+        private static boolean isASCII(String value)
+        {
+            if (value != null)
             {
-                b.append("/");
+                for (int i = 0; i < value.length(); i++)
+                {
+                    if (value.charAt(i) >= 128)
+                    {
+                        return false;
+                    }
+                }
             }
-            var uriString = b.append(URIBuilder.combinePathElements('/', pathElements)).toString();
-            return URI.create(uriString);
+            return true;
+        }
+
+        /**
+         * Writes the cached encoded URI or encodes the path elements directly into the buffer.
+         */
+        void write(ByteBuffer target)
+        {
+            try
+            {
+                write(target, null);
+            }
+            catch(IOException e)
+            {
+                // not thrown without a stream
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @param out stream that takes the full chunk, null if the buffer is the final target
+         */
+        private void write(ByteBuffer target, OutputStream out) throws IOException
+        {
+            String result = encoded;
+            if (result != null)
+            {
+                putASCII(result, target, out);
+                return;
+            }
+            URLBuilderWithServerAndPath prefix = sharedPrefix();
+            if (prefix != null)
+            {
+                prefix.write(target, out);
+            }
+            writeSuffix(target, out);
+        }
+
+        /**
+         * @return builder of the encoded prefix that is shared with the other extensions of the same parent,
+         *         null for a builder without parent
+         */
+        URLBuilderWithServerAndPath sharedPrefix()
+        {
+            return parent != null && pathElements.length == 0 ? parent.sharedPrefix() : parent;
+        }
+
+        /**
+         * Writes the encoded URI behind the {@link #sharedPrefix()}, for a builder without parent the complete URI.
+         */
+        void writeSuffix(ByteBuffer target)
+        {
+            try
+            {
+                writeSuffix(target, null);
+            }
+            catch(IOException e)
+            {
+                // not thrown without a stream
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @param out stream that takes the full chunk, null if the buffer is the final target
+         */
+        private void writeSuffix(ByteBuffer target, OutputStream out) throws IOException
+        {
+            if (parent != null && pathElements.length == 0)
+            {
+                parent.writeSuffix(target, out);
+                return;
+            }
+            if (parent == null)
+            {
+                if (scheme != null)
+                {
+                    putASCII(scheme, target, out);
+                    put((byte) ':', target, out);
+                }
+                if (server != null)
+                {
+                    put((byte) '/', target, out);
+                    put((byte) '/', target, out);
+                    putASCII(server, target, out);
+                }
+                if (isAbsolute)
+                {
+                    put((byte) '/', target, out);
+                }
+            }
+            else if (parent.size > 0)
+            {
+                put((byte) '/', target, out);
+            }
+            if (encodedPathElements != null)
+            {
+                putASCII(encodedPathElements, target, out);
+                return;
+            }
+            for (int i = 0; i < pathElements.length; i++)
+            {
+                if (i > 0)
+                {
+                    put((byte) '/', target, out);
+                }
+                putEncoded(pathElements[i], target, out);
+            }
+        }
+
+        private static void put(byte b, ByteBuffer target, OutputStream out) throws IOException
+        {
+            if (out != null && !target.hasRemaining())
+            {
+                flush(target, out);
+            }
+            target.put(b);
+        }
+
+        private static void putASCII(String value, ByteBuffer target, OutputStream out) throws IOException
+        {
+            if (out == null)
+            {
+                URIEncoder.putASCII(value, 0, value.length(), target);
+                return;
+            }
+            int start = 0;
+            while (start < value.length())
+            {
+                if (!target.hasRemaining())
+                {
+                    flush(target, out);
+                }
+                int end = Math.min(value.length(), start + target.remaining());
+                URIEncoder.putASCII(value, start, end, target);
+                start = end;
+            }
+        }
+
+        private static void putEncoded(String element, ByteBuffer target, OutputStream out) throws IOException
+        {
+            if (out != null)
+            {
+                int length = URIEncoder.PATH_SEGMENT.encodedLength(element);
+                if (length > target.remaining())
+                {
+                    flush(target, out);
+                    if (length > target.remaining())
+                    {
+                        // longer than the chunk
+                        putASCII(URIEncoder.PATH_SEGMENT.encode(element), target, out);
+                        return;
+                    }
+                }
+            }
+            URIEncoder.PATH_SEGMENT.encode(element, target);
+        }
+
+        private static void flush(ByteBuffer chunk, OutputStream out) throws IOException
+        {
+            out.write(chunk.array(), chunk.arrayOffset(), chunk.position());
+            chunk.clear();
+        }
+
+        /**
+         * @return length of scheme and server part, the path starts behind
+         */
+        private int getHeadLength()
+        {
+            return (scheme == null ? 0 : scheme.length() + 1) + (server == null ? 0 : server.length() + 2);
         }
 
         public URLBuilderWithServerAndPath pathElements(String... elements)
         {
-            String[] newElements = Stream.concat(Arrays.stream(pathElements), Arrays.stream(elements)).toArray(String[]::new);
-            return new URLBuilderWithServerAndPath(scheme, server, isAbsolute, newElements);
+            return new URLBuilderWithServerAndPath(scheme, server, isAbsolute, this, elements, null);
+        }
+
+        /**
+         * Adds a query parameter, a parameter without value is added as name only.
+         * @param name unencoded name of the parameter
+         * @param values unencoded values, each value is added as separate parameter
+         * @return builder for the query
+         */
+        public URLBuilderWithQuery queryParam(String name, String... values)
+        {
+            return new URLBuilderWithQuery(this, new String[0], false, null).queryParam(name, values);
+        }
+
+        /**
+         * @param fragment unencoded fragment
+         * @return builder with fragment
+         */
+        public URLBuilderWithQuery fragment(String fragment)
+        {
+            return new URLBuilderWithQuery(this, new String[0], false, fragment);
+        }
+
+        /**
+         * Appends the path elements of a relative URL, the already encoded path of the relative URL is reused.
+         * @param relative builder created by {@link URIBuilder#createRelativeURL()}
+         * @return extended builder
+         */
+        public URLBuilderWithServerAndPath pathElements(URLBuilderWithServerAndPath relative)
+        {
+            if (relative.scheme != null || relative.server != null)
+            {
+                throw new IllegalArgumentException("Only relative URLs can be appended: " + relative.encodeString());
+            }
+            String relativePath = relative.encodeString();
+            if (relative.isAbsolute)
+            {
+                relativePath = relativePath.substring(1);
+            }
+            return new URLBuilderWithServerAndPath(scheme, server, isAbsolute, this, relative.getPathElements(), relativePath);
+        }
+
+        /**
+         * @return encoded path of a relative URL
+         * @throws IllegalArgumentException if the builder has a scheme or server
+         */
+        String encodeRelativePath()
+        {
+            if (scheme != null || server != null)
+            {
+                throw new IllegalArgumentException("Only relative URLs can be resolved: " + encodeString());
+            }
+            return encodeString();
         }
 
+        /**
+         * @return all unencoded path elements
+         */
         public String[] getPathElements()
         {
-            return pathElements;
+            String[] result = new String[size];
+            int end = size;
+            for (URLBuilderWithServerAndPath node = this; node != null; node = node.parent)
+            {
+                end -= node.pathElements.length;
+                System.arraycopy(node.pathElements, 0, result, end, node.pathElements.length);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Query and fragment of a URL. The parameters are stored as flat array of name and value pairs.
+     * The URL is built with one pass to calculate the length and one pass to write the encoded characters.
+     */
+    public static class URLBuilderWithQuery
+    {
+        private final URLBuilderWithServerAndPath path;
+        /**
+         * Unencoded names and values, a value is null for a parameter without value
+         */
+        private final String[] parameters;
+        private final boolean formEncoded;
+        private final String fragment;
+
+        private URLBuilderWithQuery(URLBuilderWithServerAndPath path, String[] parameters, boolean formEncoded, String fragment)
+        {
+            this.path = path;
+            this.parameters = parameters;
+            this.formEncoded = formEncoded;
+            this.fragment = fragment;
+        }
+
+        /**
+         * Adds a query parameter, a parameter without value is added as name only.
+         * @param name unencoded name of the parameter
+         * @param values unencoded values, each value is added as separate parameter
+         * @return builder for the query
+         */
+        public URLBuilderWithQuery queryParam(String name, String... values)
+        {
+            int count = Math.max(1, values.length);
+            String[] newParameters = Arrays.copyOf(parameters, parameters.length + 2 * count);
+            for (int i = 0; i < count; i++)
+            {
+                newParameters[parameters.length + 2 * i] = name;
+                newParameters[parameters.length + 2 * i + 1] = values.length == 0 ? null : values[i];
+            }
+            return new URLBuilderWithQuery(path, newParameters, formEncoded, fragment);
+        }
+
+        /**
+         * Encodes the query parameters as application/x-www-form-urlencoded, a space is encoded as '+'.
+         * By default, the parameters are encoded as defined by RFC 3986 and a space is encoded as %20.
+         * @return builder with form encoded query
+         */
+        public URLBuilderWithQuery formEncoded()
+        {
+            return new URLBuilderWithQuery(path, parameters, true, fragment);
+        }
+
+        /**
+         * @param fragment unencoded fragment
+         * @return builder with fragment
+         */
+        public URLBuilderWithQuery fragment(String fragment)
+        {
+            return new URLBuilderWithQuery(path, parameters, formEncoded, fragment);
+        }
+
+        private URIEncoder parameterEncoder()
+        {
+            return formEncoded ? URIEncoder.FORM : URIEncoder.QUERY_PARAMETER;
+        }
+
+        /**
+         * @return number of ASCII characters of the encoded URI
+         */
+        public int encodedLength()
+        {
+            URIEncoder encoder = parameterEncoder();
+            int length = path.encodedLength();
+            for (int i = 0; i < parameters.length; i += 2)
+            {
+                // '?' or '&' before the name
+                length += 1 + encoder.encodedLength(parameters[i]);
+                if (parameters[i + 1] != null)
+                {
+                    length += 1 + encoder.encodedLength(parameters[i + 1]);
+                }
+            }
+            if (fragment != null)
+            {
+                length += 1 + URIEncoder.FRAGMENT.encodedLength(fragment);
+            }
+            return length;
+        }
+
+        /**
+         * @return encoded URI, parsed by {@link URI#create(String)}
+         */
+        public URI build()
+        {
+            return URI.create(buildString());
+        }
+
+        /**
+         * @return encoded URI as string
+         */
+        public String buildString()
+        {
+            return new String(encode());
+        }
+
+        /**
+         * @return encoded URI with its components, without parsing it again
+         */
+        public EncodedURI buildEncoded()
+        {
+            char[] encoded = encode();
+            int queryStart = -1;
+            int fragmentStart = -1;
+            int pathEnd = path.encodedLength();
+            if (parameters.length > 0)
+            {
+                queryStart = pathEnd + 1;
+            }
+            if (fragment != null)
+            {
+                fragmentStart = encoded.length - URIEncoder.FRAGMENT.encodedLength(fragment);
+            }
+            return new EncodedURI(new String(encoded), path.scheme, path.server, path.getHeadLength(), queryStart, fragmentStart,
+                            path.getPathElements(), true);
+        }
+
+        private char[] encode()
+        {
+            URIBuildEvent event = URIEvents.startBuild();
+            URIEncoder encoder = parameterEncoder();
+            char[] target = new char[encodedLength()];
+            String pathString = path.encodeString();
+            pathString.getChars(0, pathString.length(), target, 0);
+            int pos = pathString.length();
+            for (int i = 0; i < parameters.length; i += 2)
+            {
+                target[pos++] = i == 0 ? '?' : '&';
+                pos = encoder.encode(parameters[i], target, pos);
+                if (parameters[i + 1] != null)
+                {
+                    target[pos++] = '=';
+                    pos = encoder.encode(parameters[i + 1], target, pos);
+                }
+            }
+            if (fragment != null)
+            {
+                target[pos++] = '#';
+                URIEncoder.FRAGMENT.encode(fragment, target, pos);
+            }
+            URIEvents.endBuild(event, path.size, target.length);
+            return target;
         }
     }
 }
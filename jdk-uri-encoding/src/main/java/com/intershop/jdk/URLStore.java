@@ -0,0 +1,380 @@
+package com.intershop.jdk;
+
+import java.net.URI;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact store for millions of encoded URLs, e.g. the URLs of a crawler or a product feed.
+ *
+ * The encoded URLs are ASCII, so each character is stored as one byte in large shared chunks. A URL added
+ * by its builder is split at its parent: the encoded URL of the parent is stored once as prefix, each URL
+ * stores the reference to its prefix and the path elements behind. An int handle identifies a URL,
+ * the string or URI is created on access only.
+ * <pre>
+ * static final URLBuilder.URLBuilderWithServerAndPath CUSTOMERS = URIBuilder.createURL().scheme("https").server("servername")
+ *                 .pathElements("rest", "customers");
+ * URLStore store = new URLStore();
+ * int handle = store.add(CUSTOMERS.pathElements(customerNo, "addresses"));
+ * ...
+ * URI uri = store.getURI(handle);
+ * </pre>
+ * URLs of builders without parent are stored completely, so the URLs should be extended from shared builders.
+ * Only the direct parent is shared, prefixes are not nested: the prefix of a parent that extends another parent
+ * contains the encoded URL of the other parent again. So the store saves most for many URLs per parent.
+ * The store is not thread-safe, the URLs can be read concurrently after all URLs are added.
+ */
+public final class URLStore
+{
+    /**
+     * Default size of a chunk, large enough to keep the number of chunks small.
+     */
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * Maximal number of shared prefixes, further URLs are stored completely.
+     */
+    private static final int MAX_PREFIXES = 1 << 16;
+
+    private static final byte[] NO_PREFIX = new byte[0];
+
+    /**
+     * Estimated heap per shared prefix besides its characters: the entry of the map (32 bytes), the boxed id (16 bytes),
+     * the string object of the key (24 bytes) and the headers of the arrays of the key and of the prefix (16 bytes each).
+     */
+    private static final int PREFIX_OVERHEAD = 32 + 16 + 24 + 16 + 16;
+
+    private final int chunkSize;
+    private byte[][] chunks = new byte[0][];
+    /**
+     * Position of the record of each URL: index of the chunk * chunk size + offset in the chunk
+     */
+    private long[] positions = new long[1024];
+    private int size;
+    /**
+     * Position behind the last record
+     */
+    private long end;
+
+    private final Map<String, Integer> prefixIds = new HashMap<>();
+    private byte[][] prefixes = { NO_PREFIX };
+    private int prefixCount = 1;
+    /**
+     * Estimated heap of the shared prefixes including the keys of the map, without the table of the map
+     */
+    private long prefixBytes;
+
+    /**
+     * Creates a store with chunks of 1 MiB.
+     */
+    public URLStore()
+    {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize number of bytes per chunk, a record of a URL doesn't span chunks
+     */
+    public URLStore(int chunkSize)
+    {
+        if (chunkSize < 64)
+        {
+            throw new IllegalArgumentException("Chunk size must be at least 64: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Adds the encoded URL of the builder, the URL of its parent is stored once for all extensions of the parent.
+     * @param url builder of the URL
+     * @return handle of the URL
+     * @throws IllegalArgumentException if the scheme or the server contains non-ASCII characters
+     *         or the encoded URL doesn't fit into a chunk
+     */
+    public int add(URLBuilder.URLBuilderWithServerAndPath url)
+    {
+        url.checkASCII();
+        URLBuilder.URLBuilderWithServerAndPath prefix = url.sharedPrefix();
+        int prefixId = 0;
+        int prefixLength = 0;
+        if (prefix != null)
+        {
+            prefixId = prefixId(prefix.encodeString());
+            if (prefixId == 0)
+            {
+                // prefix table is full
+                prefix = null;
+            }
+            else
+            {
+                prefixLength = prefixes[prefixId].length;
+            }
+        }
+        int suffixLength = url.encodedLength() - prefixLength;
+        ByteBuffer target = startRecord(prefixId, suffixLength);
+        if (prefix == null)
+        {
+            url.write(target);
+        }
+        else
+        {
+            url.writeSuffix(target);
+        }
+        return size++;
+    }
+
+    /**
+     * Adds an encoded URL without sharing a prefix.
+     * @param encodedURL encoded URL, e.g. read from a sitemap
+     * @return handle of the URL
+     * @throws IllegalArgumentException if the URL contains non-ASCII characters or doesn't fit into a chunk
+     */
+    public int add(String encodedURL)
+    {
+        int l = encodedURL.length();
+        for (int i = 0; i < l; i++)
+        {
+            if (encodedURL.charAt(i) >= 128)
+            {
+                throw new IllegalArgumentException("URL is not encoded: " + encodedURL);
+            }
+        }
+        URIEncoder.putASCII(encodedURL, 0, l, startRecord(0, l));
+        return size++;
+    }
+
+    /**
+     * @param prefix encoded URL of a shared builder
+     * @return id of the prefix, 0 if the table of prefixes is full
+     */
+    private int prefixId(String prefix)
+    {
+        Integer id = prefixIds.get(prefix);
+        if (id != null)
+        {
+            return id;
+        }
+        if (prefixCount == MAX_PREFIXES)
+        {
+            return 0;
+        }
+        if (prefixCount == prefixes.length)
+        {
+            prefixes = Arrays.copyOf(prefixes, prefixCount * 2);
+        }
+        byte[] bytes = prefix.getBytes(StandardCharsets.ISO_8859_1);
+        prefixes[prefixCount] = bytes;
+        // the characters are stored twice, as key and as prefix
+        prefixBytes += PREFIX_OVERHEAD + 2 * align(bytes.length);
+        prefixIds.put(prefix, prefixCount);
+        return prefixCount++;
+    }
+
+    /**
+     * Writes the header of a record: prefix id and length of the suffix as variable length integers.
+     * @return buffer for the bytes of the suffix
+     */
+    private ByteBuffer startRecord(int prefixId, int suffixLength)
+    {
+        int recordLength = varIntLength(prefixId) + varIntLength(suffixLength) + suffixLength;
+        if (recordLength > chunkSize)
+        {
+            throw new IllegalArgumentException("URL is longer than a chunk: " + suffixLength);
+        }
+        int chunk = (int) (end / chunkSize);
+        int offset = (int) (end % chunkSize);
+        if (chunk == chunks.length || offset + recordLength > chunkSize)
+        {
+            if (offset > 0)
+            {
+                chunk++;
+            }
+            chunks = Arrays.copyOf(chunks, chunk + 1);
+            chunks[chunk] = new byte[chunkSize];
+            offset = 0;
+        }
+        if (size == positions.length)
+        {
+            positions = Arrays.copyOf(positions, size + (size >> 1));
+        }
+        long position = (long) chunk * chunkSize + offset;
+        positions[size] = position;
+        end = position + recordLength;
+        byte[] bytes = chunks[chunk];
+        offset = putVarInt(prefixId, bytes, offset);
+        offset = putVarInt(suffixLength, bytes, offset);
+        return ByteBuffer.wrap(bytes, offset, suffixLength);
+    }
+
+    private static int varIntLength(int value)
+    {
+        int length = 1;
+        while (value >= 0x80)
+        {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    private static int putVarInt(int value, byte[] target, int offset)
+    {
+        while (value >= 0x80)
+        {
+            target[offset++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        target[offset++] = (byte) value;
+        return offset;
+    }
+
+    /**
+     * @return number of URLs
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return number of shared prefixes
+     */
+    public int getPrefixCount()
+    {
+        return prefixCount - 1;
+    }
+
+    /**
+     * Estimates the heap used by the store: the chunks, the positions, the shared prefixes and the map of the prefixes
+     * with its string keys. The estimate assumes compressed references and objects aligned to 8 bytes.
+     * @return number of bytes
+     */
+    public long getMemoryFootprint()
+    {
+        return (long) chunks.length * chunkSize + 8L * positions.length + 4L * prefixes.length + prefixBytes
+                        + 4L * mapTableLength(prefixCount - 1);
+    }
+
+    /**
+     * @return length of the table of a HashMap with the default load factor
+     */
+    private static int mapTableLength(int entries)
+    {
+        if (entries == 0)
+        {
+            return 0;
+        }
+        int length = 16;
+        while (length * 3 / 4 < entries)
+        {
+            length <<= 1;
+        }
+        return length;
+    }
+
+    private static long align(long bytes)
+    {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * @param handle handle of the URL
+     * @return number of characters of the encoded URL
+     */
+    public int length(int handle)
+    {
+        Record record = new Record(handle);
+        return prefixes[record.prefixId].length + record.length;
+    }
+
+    /**
+     * @param handle handle of the URL
+     * @return encoded URL
+     */
+    public String getString(int handle)
+    {
+        Record record = new Record(handle);
+        byte[] prefix = prefixes[record.prefixId];
+        byte[] bytes = new byte[prefix.length + record.length];
+        System.arraycopy(prefix, 0, bytes, 0, prefix.length);
+        System.arraycopy(record.chunk, record.offset, bytes, prefix.length, record.length);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * @param handle handle of the URL
+     * @return URL parsed by {@link URI#create(String)}
+     */
+    public URI getURI(int handle)
+    {
+        return URI.create(getString(handle));
+    }
+
+    /**
+     * Writes the encoded URL as ASCII bytes into the buffer at its current position, without creating a string.
+     * @param handle handle of the URL
+     * @param target target buffer
+     * @throws BufferOverflowException if the encoded URL doesn't fit into the buffer
+     */
+    public void writeTo(int handle, ByteBuffer target)
+    {
+        Record record = new Record(handle);
+        byte[] prefix = prefixes[record.prefixId];
+        if (target.remaining() < prefix.length + record.length)
+        {
+            throw new BufferOverflowException();
+        }
+        target.put(prefix).put(record.chunk, record.offset, record.length);
+    }
+
+    /**
+     * Decoded header of the record of a URL.
+     */
+    private final class Record
+    {
+        private final byte[] chunk;
+        private final int prefixId;
+        private final int length;
+        /**
+         * Offset of the suffix in the chunk
+         */
+        private final int offset;
+
+        Record(int handle)
+        {
+            if (handle < 0 || handle >= size)
+            {
+                throw new IndexOutOfBoundsException(handle);
+            }
+            long position = positions[handle];
+            chunk = chunks[(int) (position / chunkSize)];
+            int pos = (int) (position % chunkSize);
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do
+            {
+                b = chunk[pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            }
+            while (b < 0);
+            prefixId = value;
+            value = 0;
+            shift = 0;
+            do
+            {
+                b = chunk[pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            }
+            while (b < 0);
+            length = value;
+            offset = pos;
+        }
+    }
+}
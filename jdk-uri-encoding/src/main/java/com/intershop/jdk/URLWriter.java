@@ -0,0 +1,350 @@
+package com.intershop.jdk;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Mutable URL builder for tight loops, e.g. rendering a page with hundreds of links.
+ *
+ * The writer owns a growable scratch buffer, which is reused after {@link #reset()}. Only {@link #toString()}
+ * allocates, {@link #writeTo(ByteBuffer)} copies the encoded URL without creating a string.
+ * A writer must be used by one thread at a time. Writers can be shared with a {@link URLWriterPool}.
+ * <pre>
+ * static final URLBuilder.URLBuilderWithServerAndPath PRODUCTS = URIBuilder.createURL().scheme("https").server("servername")
+ *                 .pathElements("rest", "products");
+ * try (URLWriter writer = pool.acquire())
+ * {
+ *     for (Product product : products)
+ *     {
+ *         html.append(writer.reset(PRODUCTS).segments(product.getSKU(), "variations"));
+ *     }
+ * }
+ * </pre>
+ */
+public final class URLWriter implements CharSequence, AutoCloseable
+{
+    /**
+     * Maximal number of encoded characters per unencoded character, a character of the BMP is encoded as three bytes.
+     */
+    private static final int MAX_EXPANSION = 9;
+
+    private final URLWriterPool pool;
+    private char[] buffer;
+    private int length;
+    private int segmentCount;
+    /**
+     * true while the writer is in its pool
+     */
+    private boolean pooled;
+
+    /**
+     * Creates a writer that is not pooled.
+     */
+    public URLWriter()
+    {
+        this(null, 128);
+    }
+
+    URLWriter(URLWriterPool pool, int capacity)
+    {
+        this.pool = pool;
+        this.buffer = new char[capacity];
+    }
+
+    /**
+     * Clears the writer for a new relative reference, the buffer is kept.
+     * @return this writer
+     */
+    public URLWriter reset()
+    {
+        length = 0;
+        segmentCount = 0;
+        return this;
+    }
+
+    /**
+     * Clears the writer and starts with the encoded URL of the builder, which is cached by the builder.
+     * @param base builder with the common part of the URLs
+     * @return this writer
+     */
+    public URLWriter reset(URLBuilder.URLBuilderWithServerAndPath base)
+    {
+        reset();
+        appendEncoded(base.encodeString());
+        segmentCount = base.size();
+        return this;
+    }
+
+    /**
+     * Appends scheme, server and the slash of an absolute path, like the builder does before the path elements.
+     */
+    URLWriter head(String scheme, String server, boolean isAbsolute)
+    {
+        if (scheme != null)
+        {
+            appendEncoded(scheme);
+            append(':');
+        }
+        if (server != null)
+        {
+            append('/');
+            append('/');
+            appendEncoded(server);
+        }
+        if (isAbsolute)
+        {
+            append('/');
+        }
+        return this;
+    }
+
+    /**
+     * Appends already encoded characters, e.g. the encoded path elements of a relative URL.
+     * @param encoded encoded characters
+     * @param count number of path elements of the encoded characters
+     */
+    URLWriter appendEncoded(String encoded, int count)
+    {
+        if (segmentCount > 0 && count > 0)
+        {
+            append('/');
+        }
+        appendEncoded(encoded);
+        segmentCount += count;
+        return this;
+    }
+
+    private void appendEncoded(String encoded)
+    {
+        int l = encoded.length();
+        ensureCapacity(length + l);
+        encoded.getChars(0, l, buffer, length);
+        length += l;
+    }
+
+    private void append(char ch)
+    {
+        ensureCapacity(length + 1);
+        buffer[length++] = ch;
+    }
+
+    /**
+     * Encodes the path element and appends it, separated by '/' from the previous path element.
+     * The path segment cache of the {@link URIBuilder} is used, if it's set.
+     * @param segment unencoded path element
+     * @return this writer
+     */
+    public URLWriter segment(String segment)
+    {
+        if (segmentCount > 0)
+        {
+            append('/');
+        }
+        segmentCount++;
+        SegmentCache cache = URIBuilder.getPathSegmentCache();
+        if (cache != null)
+        {
+            appendEncoded(cache.encode(segment));
+            return this;
+        }
+        int l = segment.length();
+        if (length + MAX_EXPANSION * l > buffer.length)
+        {
+            // the exact length avoids a huge buffer for a long segment
+            ensureCapacity(length + URIEncoder.PATH_SEGMENT.encodedLength(segment));
+        }
+        length = URIEncoder.PATH_SEGMENT.encode(segment, buffer, length);
+        return this;
+    }
+
+    /**
+     * Encodes the path element without converting it to a string and appends it, separated by '/' from the previous
+     * path element. A string is encoded by {@link #segment(String)}.
+     * @param segment unencoded path element, e.g. a slice of a CharBuffer
+     * @return this writer
+     */
+    public URLWriter segment(CharSequence segment)
+    {
+        if (segment instanceof String string)
+        {
+            return segment(string);
+        }
+        if (segmentCount > 0)
+        {
+            append('/');
+        }
+        segmentCount++;
+        int l = segment.length();
+        if (length + MAX_EXPANSION * l > buffer.length)
+        {
+            ensureCapacity(length + URIEncoder.PATH_SEGMENT.encodedLength(segment));
+        }
+        length = URIEncoder.PATH_SEGMENT.encode(segment, buffer, length);
+        return this;
+    }
+
+    /**
+     * @param segments unencoded path elements
+     * @return this writer
+     * @see #segment(String)
+     */
+    public URLWriter segments(String... segments)
+    {
+        for (String segment : segments)
+        {
+            segment(segment);
+        }
+        return this;
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if (capacity > buffer.length)
+        {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+        }
+    }
+
+    /**
+     * @return number of characters of the encoded URL
+     */
+    @Override
+    public int length()
+    {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index)
+    {
+        if (index < 0 || index >= length)
+        {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return buffer[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end)
+    {
+        return toString().substring(start, end);
+    }
+
+    void setPooled(boolean pooled)
+    {
+        this.pooled = pooled;
+    }
+
+    /**
+     * @return capacity of the scratch buffer
+     */
+    int capacity()
+    {
+        return buffer.length;
+    }
+
+    /**
+     * Writes the encoded URL as ASCII bytes into the buffer at its current position.
+     * @param target target buffer
+     * @throws BufferOverflowException if the encoded URL doesn't fit into the buffer
+     * @throws IllegalArgumentException if the URL contains non-ASCII characters, e.g. of a server that was appended as it is
+     */
+    public void writeTo(ByteBuffer target)
+    {
+        if (target.remaining() < length)
+        {
+            throw new BufferOverflowException();
+        }
+        // the position is moved after all characters are checked
+        int position = target.position();
+        if (target.hasArray())
+        {
+            byte[] array = target.array();
+            int offset = target.arrayOffset() + position;
+            for (int i = 0; i < length; i++)
+            {
+                array[offset + i] = toASCII(buffer[i]);
+            }
+        }
+        else
+        {
+            for (int i = 0; i < length; i++)
+            {
+                target.put(position + i, toASCII(buffer[i]));
+            }
+        }
+        target.position(position + length);
+    }
+
+    private byte toASCII(char ch)
+    {
+        if (ch >= 128)
+        {
+            throw new IllegalArgumentException("URL is not ASCII, use host(String) to convert the server: " + this);
+        }
+        return (byte) ch;
+    }
+
+    /**
+     * Writes the encoded URL as ASCII bytes into the array.
+     * @param target target array
+     * @param offset position of the first byte in the target
+     * @return position after the last written byte
+     * @throws BufferOverflowException if the encoded URL doesn't fit into the array
+     * @throws IllegalArgumentException if the URL contains non-ASCII characters
+     */
+    public int writeTo(byte[] target, int offset)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(target, offset, target.length - offset);
+        writeTo(buffer);
+        return buffer.position();
+    }
+
+    /**
+     * Appends the encoded URL, e.g. to a StringBuilder or Writer of an HTML page.
+     * @param appendable target of the encoded URL
+     * @return the given appendable
+     * @throws IOException if the appendable fails
+     */
+    public Appendable writeTo(Appendable appendable) throws IOException
+    {
+        if (appendable instanceof StringBuilder builder)
+        {
+            builder.append(buffer, 0, length);
+            return builder;
+        }
+        if (appendable instanceof Writer writer)
+        {
+            writer.write(buffer, 0, length);
+            return writer;
+        }
+        return appendable.append(this);
+    }
+
+    /**
+     * @return encoded URL
+     */
+    @Override
+    public String toString()
+    {
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * Returns the writer to its pool, a writer that is not pooled is only reset.
+     */
+    @Override
+    public void close()
+    {
+        reset();
+        if (pool != null && !pooled)
+        {
+            // a second close must not return the writer twice
+            pooled = true;
+            pool.release(this);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.intershop.jdk;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded pool of {@link URLWriter}, without ThreadLocal, so it can be used by virtual threads.
+ *
+ * A writer is taken from a free slot or created, if all slots are empty. A returned writer is dropped,
+ * if all slots are occupied or its buffer grew beyond the maximal capacity.
+ * <pre>
+ * static final URLWriterPool POOL = new URLWriterPool(64);
+ * try (URLWriter writer = POOL.acquire())
+ * {
+ *     ...
+ * }
+ * </pre>
+ */
+public final class URLWriterPool
+{
+    private static final int INITIAL_CAPACITY = 128;
+    private static final int DEFAULT_MAX_CAPACITY = 8192;
+
+    private final AtomicReferenceArray<URLWriter> slots;
+    private final int maxCapacity;
+
+    /**
+     * @param size maximal number of pooled writers, e.g. the number of carrier threads
+     */
+    public URLWriterPool(int size)
+    {
+        this(size, DEFAULT_MAX_CAPACITY);
+    }
+
+    /**
+     * @param size maximal number of pooled writers
+     * @param maxCapacity maximal number of characters of the buffer of a pooled writer
+     */
+    public URLWriterPool(int size, int maxCapacity)
+    {
+        if (size <= 0)
+        {
+            throw new IllegalArgumentException("Size must be positive: " + size);
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.maxCapacity = maxCapacity;
+    }
+
+    /**
+     * @return empty writer, to be returned by {@link URLWriter#close()}
+     */
+    public URLWriter acquire()
+    {
+        int start = probe();
+        for (int i = 0; i < slots.length(); i++)
+        {
+            int index = (start + i) % slots.length();
+            URLWriter writer = slots.get(index);
+            if (writer != null && slots.compareAndSet(index, writer, null))
+            {
+                writer.setPooled(false);
+                return writer;
+            }
+        }
+        return new URLWriter(this, INITIAL_CAPACITY);
+    }
+
+    void release(URLWriter writer)
+    {
+        if (writer.capacity() > maxCapacity)
+        {
+            return;
+        }
+        int start = probe();
+        for (int i = 0; i < slots.length(); i++)
+        {
+            int index = (start + i) % slots.length();
+            if (slots.get(index) == null && slots.compareAndSet(index, null, writer))
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Spreads the threads over the slots, so that they compete less for the same slot.
+     */
+    private int probe()
+    {
+        long id = Thread.currentThread().threadId();
+        return (int) ((id ^ (id >>> 32)) & Integer.MAX_VALUE) % slots.length();
+    }
+}
@@ -1,5 +1,306 @@
 package com.intershop.jdk;
 
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * Example of a URN Builder (RFC 8141).
+ * <pre>
+ * urn:&lt;NID&gt;:&lt;NSS elements separated by ':'&gt;[?+&lt;r-component&gt;][?=&lt;q-component&gt;][#&lt;f-component&gt;]
+ * </pre>
+ * The NID is validated and converted to lower case once. The NSS elements are encoded like path elements,
+ * the ':' in an element is encoded, because it separates the elements.
+ * <pre>
+ * static final URNBuilder.URNBuilderWithNID ORDER = URIBuilder.createURN().nid("intershop").nssPrefix("order");
+ * String urn = ORDER.buildString(tenant, orderID); // urn:intershop:order:&lt;tenant&gt;:&lt;orderID&gt;
+ * </pre>
+ */
 public class URNBuilder
 {
+    private static final int NID_MIN_LENGTH = 2;
+    private static final int NID_MAX_LENGTH = 32;
+
+    /**
+     * @param nid namespace identifier, e.g. "isbn"
+     * @return builder with the validated, lower case namespace identifier
+     * @throws IllegalArgumentException if the namespace identifier is not valid
+     */
+    public URNBuilderWithNID nid(String nid)
+    {
+        return new URNBuilderWithNID("urn:" + validateNID(nid) + ":", false);
+    }
+
+    /**
+     * from RFC NID = (alphanum) 0*30(ldh) (alphanum)
+     * @param nid namespace identifier
+     * @return lower case namespace identifier
+     */
+    private static String validateNID(String nid)
+    {
+        int l = nid.length();
+        if (l < NID_MIN_LENGTH || l > NID_MAX_LENGTH)
+        {
+            throw new IllegalArgumentException("NID must have 2 to 32 characters: " + nid);
+        }
+        for (int i = 0; i < l; i++)
+        {
+            char ch = nid.charAt(i);
+            boolean alphanum = (ch >= '0' && ch <= '9') || (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z');
+            if (!alphanum && (ch != '-' || i == 0 || i == l - 1))
+            {
+                throw new IllegalArgumentException("Invalid character '" + ch + "' at index " + i + " of NID: " + nid);
+            }
+        }
+        return nid.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Encodes the NSS elements into the target, the elements are separated by ':'.
+     * The NSS must not start with '/', so a leading slash of the first element is encoded.
+     * @return position after the last encoded character
+     */
+    private static int encodeNSS(String[] elements, boolean continued, char[] target, int pos)
+    {
+        for (int i = 0; i < elements.length; i++)
+        {
+            if (i > 0)
+            {
+                target[pos++] = ':';
+            }
+            String element = elements[i];
+            if (!continued && i == 0 && element.startsWith("/"))
+            {
+                target[pos++] = '%';
+                target[pos++] = '2';
+                target[pos++] = 'F';
+                pos = URIEncoder.URN_NSS.encode(element.substring(1), target, pos);
+            }
+            else
+            {
+                pos = URIEncoder.URN_NSS.encode(element, target, pos);
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * @return number of characters of the encoded NSS elements including the separators
+     */
+    private static int encodedNSSLength(String[] elements, boolean continued)
+    {
+        int length = Math.max(0, elements.length - 1);
+        for (String element : elements)
+        {
+            length += URIEncoder.URN_NSS.encodedLength(element);
+        }
+        if (!continued && elements.length > 0 && elements[0].startsWith("/"))
+        {
+            // leading slash is encoded as %2F
+            length += 2;
+        }
+        return length;
+    }
+
+    /**
+     * URN prefix "urn:&lt;NID&gt;:" optionally followed by fixed NSS elements, it can be reused for many URNs.
+     */
+    public static class URNBuilderWithNID
+    {
+        /**
+         * Encoded prefix, ends with ':'
+         */
+        private final String head;
+        /**
+         * true if the head contains NSS elements already
+         */
+        private final boolean continued;
+
+        private URNBuilderWithNID(String head, boolean continued)
+        {
+            this.head = head;
+            this.continued = continued;
+        }
+
+        /**
+         * Appends fixed NSS elements to the prefix, e.g. the type of the named resource.
+         * @param elements unencoded NSS elements
+         * @return reusable prefix
+         */
+        public URNBuilderWithNID nssPrefix(String... elements)
+        {
+            if (elements.length == 0)
+            {
+                return this;
+            }
+            char[] target = new char[head.length() + encodedNSSLength(elements, continued) + 1];
+            head.getChars(0, head.length(), target, 0);
+            int pos = encodeNSS(elements, continued, target, head.length());
+            target[pos] = ':';
+            return new URNBuilderWithNID(new String(target), true);
+        }
+
+        /**
+         * @param elements unencoded NSS elements
+         * @return builder with namespace specific string
+         */
+        public URNBuilderWithNSS nss(String... elements)
+        {
+            if (!continued && (elements.length == 0 || elements[0].isEmpty()))
+            {
+                throw new IllegalArgumentException("NSS must not be empty");
+            }
+            return new URNBuilderWithNSS(this, elements, null, null, null);
+        }
+
+        /**
+         * Creates the URN in one exactly sized pass, without creating a builder.
+         * @param elements unencoded NSS elements, appended to the prefix
+         * @return encoded URN
+         */
+        public String buildString(String... elements)
+        {
+            if (!continued && (elements.length == 0 || elements[0].isEmpty()))
+            {
+                throw new IllegalArgumentException("NSS must not be empty");
+            }
+            if (elements.length == 0)
+            {
+                // the prefix ends with the separator
+                return head.substring(0, head.length() - 1);
+            }
+            char[] target = new char[head.length() + encodedNSSLength(elements, continued)];
+            head.getChars(0, head.length(), target, 0);
+            encodeNSS(elements, continued, target, head.length());
+            return new String(target);
+        }
+
+        /**
+         * @return encoded prefix ending with ':'
+         */
+        @Override
+        public String toString()
+        {
+            return head;
+        }
+    }
+
+    /**
+     * Complete URN with optional r-, q- and f-component.
+     */
+    public static class URNBuilderWithNSS
+    {
+        private final URNBuilderWithNID prefix;
+        private final String[] elements;
+        private final String rComponent;
+        private final String qComponent;
+        private final String fComponent;
+
+        private URNBuilderWithNSS(URNBuilderWithNID prefix, String[] elements, String rComponent, String qComponent, String fComponent)
+        {
+            this.prefix = prefix;
+            this.elements = elements;
+            this.rComponent = rComponent;
+            this.qComponent = qComponent;
+            this.fComponent = fComponent;
+        }
+
+        /**
+         * @param rComponent unencoded parameters for the resolver of the URN
+         * @return builder with r-component
+         */
+        public URNBuilderWithNSS rComponent(String rComponent)
+        {
+            return new URNBuilderWithNSS(prefix, elements, rComponent, qComponent, fComponent);
+        }
+
+        /**
+         * @param qComponent unencoded parameters for the named resource
+         * @return builder with q-component
+         */
+        public URNBuilderWithNSS qComponent(String qComponent)
+        {
+            return new URNBuilderWithNSS(prefix, elements, rComponent, qComponent, fComponent);
+        }
+
+        /**
+         * @param fComponent unencoded fragment
+         * @return builder with f-component
+         */
+        public URNBuilderWithNSS fComponent(String fComponent)
+        {
+            return new URNBuilderWithNSS(prefix, elements, rComponent, qComponent, fComponent);
+        }
+
+        /**
+         * @return number of characters of the encoded URN
+         */
+        public int encodedLength()
+        {
+            int length = prefix.head.length() + encodedNSSLength(elements, prefix.continued);
+            if (prefix.continued && elements.length == 0)
+            {
+                // the prefix ends with the separator
+                length--;
+            }
+            if (rComponent != null)
+            {
+                length += 2 + URIEncoder.URN_COMPONENT.encodedLength(rComponent);
+            }
+            if (qComponent != null)
+            {
+                length += 2 + URIEncoder.URN_COMPONENT.encodedLength(qComponent);
+            }
+            if (fComponent != null)
+            {
+                length += 1 + URIEncoder.FRAGMENT.encodedLength(fComponent);
+            }
+            return length;
+        }
+
+        /**
+         * @return encoded URN
+         */
+        public String buildString()
+        {
+            char[] target = new char[encodedLength()];
+            String head = prefix.head;
+            int pos;
+            if (prefix.continued && elements.length == 0)
+            {
+                pos = head.length() - 1;
+                head.getChars(0, pos, target, 0);
+            }
+            else
+            {
+                head.getChars(0, head.length(), target, 0);
+                pos = encodeNSS(elements, prefix.continued, target, head.length());
+            }
+            if (rComponent != null)
+            {
+                target[pos++] = '?';
+                target[pos++] = '+';
+                pos = URIEncoder.URN_COMPONENT.encode(rComponent, target, pos);
+            }
+            if (qComponent != null)
+            {
+                target[pos++] = '?';
+                target[pos++] = '=';
+                pos = URIEncoder.URN_COMPONENT.encode(qComponent, target, pos);
+            }
+            if (fComponent != null)
+            {
+                target[pos++] = '#';
+                URIEncoder.FRAGMENT.encode(fComponent, target, pos);
+            }
+            return new String(target);
+        }
+
+        /**
+         * @return encoded URN, parsed by {@link URI#create(String)}
+         */
+        public URI build()
+        {
+            return URI.create(buildString());
+        }
+    }
 }
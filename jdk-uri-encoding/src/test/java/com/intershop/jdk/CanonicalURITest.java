@@ -0,0 +1,125 @@
+package com.intershop.jdk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The CanonicalURITest verifies the syntax based normalization of RFC 3986 section 6.2.2.
+ */
+public class CanonicalURITest
+{
+    /**
+     * Parameter for tests
+     */
+    private static Stream<Arguments> provideURIAndNormalForm()
+    {
+        List<Arguments> args = new ArrayList<>();
+        args.add(Arguments.of("https://servername/rest/customers/2024%2F1234", "https://servername/rest/customers/2024%2F1234"));
+        args.add(Arguments.of("HTTPS://ServerName/rest/Customers", "https://servername/rest/Customers"));
+        args.add(Arguments.of("https://User@ServerName:8443/rest", "https://User@servername:8443/rest"));
+        args.add(Arguments.of("https://servername/rest/customers/2024%2f1234", "https://servername/rest/customers/2024%2F1234"));
+        args.add(Arguments.of("https://servername/%7Euser/%41%62c", "https://servername/~user/Abc"));
+        args.add(Arguments.of("https://servername/M%c3%bcller?q=%c3%bc#%7e", "https://servername/M%C3%BCller?q=%C3%BC#~"));
+        args.add(Arguments.of("https://servername/a/./b/../c", "https://servername/a/c"));
+        args.add(Arguments.of("https://servername/a/b/..", "https://servername/a/"));
+        args.add(Arguments.of("https://servername/a/b/.", "https://servername/a/b/"));
+        args.add(Arguments.of("https://servername/a/%2E%2E/b", "https://servername/b"));
+        args.add(Arguments.of("https://servername/../a", "https://servername/a"));
+        args.add(Arguments.of("https://servername/a/..b/.c", "https://servername/a/..b/.c"));
+        args.add(Arguments.of("https://servername/a/b?x=/../y", "https://servername/a/b?x=/../y"));
+        args.add(Arguments.of("https://Server%41name", "https://serveraname"));
+        args.add(Arguments.of("urn:ISBN:0451450523", "urn:ISBN:0451450523"));
+        args.add(Arguments.of("URN:isbn:%7e", "urn:isbn:~"));
+        args.add(Arguments.of("/a/b/c/./../../g", "/a/g"));
+        args.add(Arguments.of("mid/content=5/../6", "mid/6"));
+        // a relative-path reference stays relative
+        args.add(Arguments.of("a/../../b", "../b"));
+        args.add(Arguments.of("../a/./b/../c", "../a/c"));
+        args.add(Arguments.of("../..", "../.."));
+        args.add(Arguments.of("a/b/..?q", "a/?q"));
+        args.add(Arguments.of("a/..", "."));
+        args.add(Arguments.of("./x/../a:b", "./a:b"));
+        // the decoded first segment must not become a scheme
+        args.add(Arguments.of("%61:b", "./a:b"));
+        args.add(Arguments.of("./%61:b", "./a:b"));
+        args.add(Arguments.of("", ""));
+        return args.stream();
+    }
+
+    @ParameterizedTest()
+    @MethodSource("provideURIAndNormalForm")
+    void testCanonicalize(String uri, String expected)
+    {
+        assertEquals(expected, CanonicalURI.canonicalize(uri));
+        assertEquals(expected, CanonicalURI.canonicalize(expected));
+        assertEquals(CanonicalURI.of(expected), CanonicalURI.of(uri));
+        assertEquals(CanonicalURI.of(expected).hashCode(), CanonicalURI.of(uri).hashCode());
+    }
+
+    @Test
+    void testUnchangedInstance()
+    {
+        String uri = "https://servername/rest/customers/2024%2F1234?q=a%20b#top";
+        assertSame(uri, CanonicalURI.canonicalize(uri));
+        String relative = "../../rest/customers";
+        assertSame(relative, CanonicalURI.canonicalize(relative));
+    }
+
+    @Test
+    void testNotEquals()
+    {
+        assertNotEquals(CanonicalURI.of("https://servername/a"), CanonicalURI.of("https://servername/A"));
+        assertNotEquals(CanonicalURI.of("https://servername/a%2Fb"), CanonicalURI.of("https://servername/a/b"));
+    }
+
+    /**
+     * The output of the URIBuilder is in normal form unless the scheme or server contain upper case letters,
+     * a path element is a dot-segment or a form encoded query contains '~'.
+     */
+    @Test
+    void testBuilderOutput()
+    {
+        URLBuilder.URLBuilderWithServerAndPath customers = URIBuilder.createURL().scheme("https").server("servername")
+                        .pathElements("rest", "customers");
+        EncodedURI canonical = customers.pathElements("2024/1234", "Müller").buildEncoded();
+        assertSame(canonical.toString(), CanonicalURI.of(canonical).toString());
+
+        assertEquals("https://servername/rest/x", CanonicalURI.of(customers.pathElements("..", "x").buildEncoded()).toString());
+        assertEquals("https://servername/rest", CanonicalURI.of(
+                        URIBuilder.createURL().scheme("HTTPS").server("SERVERNAME").pathElements("rest").buildEncoded()).toString());
+        assertEquals("https://servername/rest/customers?q=~", CanonicalURI.of(
+                        customers.queryParam("q", "~").formEncoded().buildEncoded()).toString());
+    }
+
+    /**
+     * A resolved URI contains the escapes of the reference, its normal form is the same as of the resolved string.
+     */
+    @ParameterizedTest()
+    @ValueSource(strings = { "a%7eb", "a%2fb", "A%41", "?q=%7e", "#%41", "%c3%bc", "./a/../b%7E" })
+    void testResolved(String reference)
+    {
+        EncodedURI base = URIBuilder.createURL().scheme("https").server("servername").pathElements("rest", "customers")
+                        .buildEncoded();
+        EncodedURI resolved = base.resolve(reference);
+        assertEquals(CanonicalURI.of(resolved.toString()), CanonicalURI.of(resolved));
+    }
+
+    @Test
+    void testMalformed()
+    {
+        assertThrows(IllegalArgumentException.class, () -> CanonicalURI.canonicalize("https://servername/%zz"));
+        assertThrows(IllegalArgumentException.class, () -> CanonicalURI.canonicalize("https://servername/%2"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.intershop.jdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The SegmentCacheTest shows that the cache returns the encoded segments and keeps its capacity.
+ */
+public class SegmentCacheTest
+{
+    @Test
+    void testHitAndMiss()
+    {
+        SegmentCache cache = new SegmentCache(URIEncoder.PATH_SEGMENT, 100);
+        assertEquals("2024%2F1234", cache.encode("2024/1234"));
+        String encoded = cache.encode("2024/1234");
+        assertEquals("2024%2F1234", encoded);
+        assertSame(encoded, cache.encode("2024/1234"));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Segments without escaped characters are not cached.
+     */
+    @Test
+    void testBypass()
+    {
+        SegmentCache cache = new SegmentCache(URIEncoder.PATH_SEGMENT, 100);
+        String segment = "2024-1234";
+        assertSame(segment, cache.encode(segment));
+        assertEquals(1, cache.getBypassCount());
+        assertEquals(0, cache.getMissCount());
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Frequently used segments survive a scan of one-time segments.
+     */
+    @Test
+    void testEviction()
+    {
+        SegmentCache cache = new SegmentCache(URIEncoder.PATH_SEGMENT, 64, 4);
+        List<String> popular = new ArrayList<>();
+        for (int i = 0; i < 16; i++)
+        {
+            popular.add("popular " + i);
+        }
+        for (int round = 0; round < 3; round++)
+        {
+            popular.forEach(cache::encode);
+        }
+        for (int i = 0; i < 10_000; i++)
+        {
+            assertEquals("one%20time%20" + i, cache.encode("one time " + i));
+            if (i % 20 == 0)
+            {
+                popular.forEach(cache::encode);
+            }
+        }
+        assertTrue(cache.size() <= 64, "size " + cache.size());
+        assertTrue(cache.getEvictionCount() > 9_000);
+        long hits = cache.getHitCount();
+        popular.forEach(cache::encode);
+        assertEquals(hits + popular.size(), cache.getHitCount());
+    }
+
+    @Test
+    void testConcurrentAccess() throws Exception
+    {
+        SegmentCache cache = new SegmentCache(URIEncoder.PATH_SEGMENT, 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 16; t++)
+            {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++)
+                    {
+                        int id = (i * 31 + seed) % 2000;
+                        assertEquals("id%20" + id, cache.encode("id " + id));
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        assertTrue(cache.size() <= 1000, "size " + cache.size());
+        assertEquals(16 * 20_000, cache.getHitCount() + cache.getMissCount());
+    }
+
+    /**
+     * The URIBuilder uses the cache for the path elements.
+     */
+    @Test
+    void testURIBuilder()
+    {
+        SegmentCache cache = new SegmentCache(URIEncoder.PATH_SEGMENT, 100);
+        URIBuilder.setPathSegmentCache(cache);
+        try
+        {
+            var customers = URIBuilder.createURL().scheme("https").server("servername").pathElements("rest", "customers");
+            assertEquals("https://servername/rest/customers/2024%2F1234", customers.pathElements("2024/1234").buildString());
+            assertEquals("https://servername/rest/customers/2024%2F1234", customers.pathElements("2024/1234").buildString());
+            assertEquals(1, cache.getHitCount());
+        }
+        finally
+        {
+            URIBuilder.setPathSegmentCache(null);
+        }
+        assertThrows(IllegalArgumentException.class, () -> URIBuilder.setPathSegmentCache(new SegmentCache(URIEncoder.QUERY, 10)));
+    }
+}
@@ -0,0 +1,109 @@
+package com.intershop.jdk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The URIAuthorityTest verifies the host stage of the URL builder, the validation of IP addresses
+ * and the conversion of internationalized host names.
+ */
+public class URIAuthorityTest
+{
+    @Test
+    void testHost()
+    {
+        assertEquals("https://servername/rest", URIBuilder.createURL().scheme("https").host("ServerName")
+                        .pathElements("rest").buildString());
+        assertEquals("https://xn--mnchen-3ya.example/rest", URIBuilder.createURL().scheme("https").host("München.example")
+                        .pathElements("rest").buildString());
+        assertEquals("https://[2001:db8::1]:8443/rest", URIBuilder.createURL().scheme("https").host("2001:DB8::1").port(8443)
+                        .pathElements("rest").buildString());
+        assertEquals("https://[::1]/", URIBuilder.createURL().scheme("https").host("[::1]").pathElements().buildString());
+        assertEquals("https://192.168.0.1:80/", URIBuilder.createURL().scheme("https").host("192.168.0.1").port(80)
+                        .pathElements().buildString());
+    }
+
+    @Test
+    void testAuthority()
+    {
+        URLBuilder.URLBuilderWithHost host = URIBuilder.createURL().scheme("https").host("münchen.example")
+                        .userInfo("user name:secret").port(8443);
+        assertEquals("user%20name:secret@xn--mnchen-3ya.example:8443", host.getAuthority());
+        EncodedURI uri = host.pathElements("rest", "customers").buildEncoded();
+        assertEquals(host.getAuthority(), uri.getRawAuthority());
+        assertEquals("/rest/customers", uri.getRawPath());
+        URI parsed = uri.toURI();
+        assertEquals("xn--mnchen-3ya.example", parsed.getHost());
+        assertEquals(8443, parsed.getPort());
+        assertEquals("user name:secret", parsed.getUserInfo());
+    }
+
+    /**
+     * The builder keeps the converted authority, the conversion is memoized for new builders.
+     */
+    @Test
+    void testMemoized()
+    {
+        URLBuilder.URLBuilderWithHost host = URIBuilder.createURL().scheme("https").host("bücher.example");
+        assertSame(host.getAuthority(), host.pathElements("a").buildEncoded().getRawAuthority());
+        assertSame(host.getAuthority(), URIBuilder.createURL().scheme("https").host("bücher.example").getAuthority());
+    }
+
+    @ParameterizedTest()
+    @ValueSource(strings = { "::", "::1", "1::", "2001:db8::1", "2001:db8:0:0:0:0:2:1", "1:2:3:4:5:6:7::", "::ffff:192.0.2.128",
+                    "1:2:3:4:5:6:192.0.2.128", "fe80::1:2:3:192.0.2.128" })
+    void testValidIPv6(String address)
+    {
+        assertTrue(URIAuthority.isIPv6(address, 0, address.length()));
+        assertEquals("[" + address + "]", URIAuthority.toURLHost(address));
+    }
+
+    @ParameterizedTest()
+    @ValueSource(strings = { ":", ":::", "1:", ":1", "1:2:3:4:5:6:7:8:9", "1:2:3:4:5:6:7", "1::2::3", "12345::", "g::",
+                    "1:2:3:4:5:6:7:192.0.2.1", "::1.2.3", "::256.0.0.1", "1:2:3:4:5::6:1.2.3.4",
+                    "1:2:3:4:5:1.2.3.4", "1:1.2.3.4" })
+    void testInvalidIPv6(String address)
+    {
+        assertFalse(URIAuthority.isIPv6(address, 0, address.length()));
+        assertThrows(IllegalArgumentException.class, () -> URIAuthority.toURLHost(address));
+        assertThrows(IllegalArgumentException.class, () -> URIAuthority.toURLHost("[" + address + "]"));
+    }
+
+    @ParameterizedTest()
+    @ValueSource(strings = { "1.2.3", "1.2.3.4.5", "256.1.1.1", "01.1.1.1", "1..1.1", "1.2.3.4." })
+    void testInvalidIPv4(String address)
+    {
+        assertThrows(IllegalArgumentException.class, () -> URIAuthority.toURLHost(address));
+    }
+
+    @Test
+    void testInvalid()
+    {
+        assertThrows(IllegalArgumentException.class, () -> URIAuthority.toURLHost(""));
+        assertThrows(IllegalArgumentException.class, () -> URIAuthority.toURLHost("server name"));
+        assertThrows(IllegalArgumentException.class, () -> URIAuthority.toURLHost("[::1"));
+        assertThrows(IllegalArgumentException.class, () -> URIBuilder.createURL().scheme("https").host("servername").port(65536));
+        assertEquals("0.0.0.0", URIAuthority.toURLHost("0.0.0.0"));
+    }
+
+    /**
+     * Digits without dots are a registered name, e.g. a host of a local network.
+     */
+    @Test
+    void testDigitsRegName()
+    {
+        assertEquals("123", URIAuthority.toURLHost("123"));
+        assertEquals("0123", URIAuthority.toURLHost("0123"));
+        assertEquals("https://4711:8080/", URIBuilder.createURL().scheme("https").host("4711").port(8080)
+                        .pathElements().buildString());
+    }
+}
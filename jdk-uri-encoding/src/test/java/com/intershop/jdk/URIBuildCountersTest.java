@@ -0,0 +1,106 @@
+package com.intershop.jdk;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The URIBuildCountersTest verifies the counters of the build listener and the flight recorder events.
+ */
+public class URIBuildCountersTest
+{
+    @Test
+    void testCounters()
+    {
+        URIBuildCounters counters = new URIBuildCounters();
+        URIBuilder.setBuildListener(counters);
+        try
+        {
+            String url = URIBuilder.createURL().scheme("https").server("servername")
+                            .pathElements("rest", "customers", "Müller 2024").buildString();
+            assertEquals("https://servername/rest/customers/M%C3%BCller%202024", url);
+            assertEquals(1, counters.getBuildCount());
+            assertEquals(3, counters.getBuiltSegmentCount());
+            assertEquals(url.length(), counters.getBuiltLength());
+            assertEquals(3, counters.getEncodeCount());
+            assertEquals("restcustomersMüller 2024".length(), counters.getInputLength());
+            assertEquals("restcustomersM%C3%BCller%202024".length(), counters.getOutputLength());
+            // two bytes of the 'ü' and the space
+            assertEquals(3, counters.getEscapedBytes());
+            assertEquals(3.0 / 24, counters.getEscapeRatio());
+
+            counters.reset();
+            URIEncoder.FORM.encode("a b");
+            assertEquals(1, counters.getEncodeCount());
+            assertEquals(0, counters.getEscapedBytes());
+            assertEquals(0, counters.getBuildCount());
+        }
+        finally
+        {
+            URIBuilder.setBuildListener(null);
+        }
+    }
+
+    /**
+     * Each call of a build method is one build, the prefix of an extended builder is not counted.
+     */
+    @Test
+    void testBuildCount()
+    {
+        URIBuildCounters counters = new URIBuildCounters();
+        URIBuilder.setBuildListener(counters);
+        try
+        {
+            URLBuilder.URLBuilderWithServerAndPath base = URIBuilder.createURL().scheme("https").server("servername")
+                            .pathElements("rest");
+            base.pathElements("customers").build();
+            base.pathElements("orders").queryParam("page", "2").buildString();
+            base.writeTo(new byte[64], 0);
+            assertEquals(3, counters.getBuildCount());
+            assertEquals(5, counters.getBuiltSegmentCount());
+        }
+        finally
+        {
+            URIBuilder.setBuildListener(null);
+        }
+    }
+
+    @Test
+    void testFlightRecorderEvents() throws IOException
+    {
+        Path file = Files.createTempFile("uri-build", ".jfr");
+        try (Recording recording = new Recording())
+        {
+            recording.enable("com.intershop.jdk.URIBuild");
+            recording.enable("com.intershop.jdk.URIEncode");
+            recording.start();
+            URIBuilder.createURL().scheme("https").server("servername").pathElements("rest", "customers", "2024/1234").build();
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            RecordedEvent build = events.stream().filter(e -> e.getEventType().getName().equals("com.intershop.jdk.URIBuild"))
+                            .findFirst().orElseThrow();
+            assertEquals(3, build.getInt("segmentCount"));
+            assertEquals("https://servername/rest/customers/2024%2F1234".length(), build.getInt("length"));
+            List<RecordedEvent> encodings = events.stream()
+                            .filter(e -> e.getEventType().getName().equals("com.intershop.jdk.URIEncode")).toList();
+            assertEquals(3, encodings.size());
+            assertTrue(encodings.stream().anyMatch(e -> e.getInt("inputLength") == 9 && e.getInt("outputLength") == 11
+                            && e.getInt("escapedBytes") == 1));
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -5,14 +5,24 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URI;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * The URIBuilderTest shows the idea, how a URI could be built easily. Mostly with low know about encoding
@@ -117,4 +127,213 @@ public class URIBuilderTest
         assertEquals("https://servername/rest/customers/2024%2F1234/addresses/shipping%20address", actual.toString());
     }
 
+    /**
+     * The relative builder can be appended directly, its encoded path is reused.
+     */
+    @Test
+    void testJoinBuilder()
+    {
+        var customerURI = URIBuilder.createURL()
+                                    .scheme(SCHEME)
+                                    .server(SERVER)
+                                    .pathElements("rest", "customers", ONE_CUSTOMER);
+        var addressesURI = URIBuilder.createRelativeURL().pathElements("addresses").pathElements("shipping address");
+        var actual = customerURI.pathElements(addressesURI);
+        assertEquals("https://servername/rest/customers/2024%2F1234/addresses/shipping%20address", actual.buildString());
+        assertArrayEquals(new String[] { "rest", "customers", ONE_CUSTOMER, "addresses", "shipping address" }, actual.getPathElements());
+        assertEquals("https://servername/rest/customers/2024%2F1234/addresses/shipping%20address/lines/1",
+                        actual.pathElements("lines", "1").buildString());
+        var absoluteURI = URIBuilder.createAbsoluteURL().pathElements("addresses", "billing address");
+        assertEquals("https://servername/rest/customers/2024%2F1234/addresses/billing%20address",
+                        customerURI.pathElements(absoluteURI).buildString());
+    }
+
+    /**
+     * Resource hierarchies are built incrementally, empty extensions don't change the URI.
+     */
+    @Test
+    void testIncrementalHierarchy()
+    {
+        var customersURI = URIBuilder.createURL().scheme(SCHEME).server(SERVER).pathElements();
+        assertEquals("https://servername/", customersURI.buildString());
+        var lineItemURI = customersURI.pathElements("rest").pathElements().pathElements("customers", ONE_CUSTOMER)
+                                      .pathElements("addresses").pathElements("shipping address", "lines").pathElements("1");
+        assertEquals("https://servername/rest/customers/2024%2F1234/addresses/shipping%20address/lines/1", lineItemURI.buildString());
+        assertEquals("/rest/customers/2024%2F1234/addresses/shipping%20address/lines/1", lineItemURI.buildEncoded().getRawPath());
+        assertEquals(7, lineItemURI.getPathElements().length);
+        assertEquals("addresses/shipping%20address", URIBuilder.createRelativeURL().pathElements().pathElements("addresses")
+                                                                .pathElements("shipping address").buildString());
+    }
+
+    /**
+     * The encoded URI provides the components without parsing the string again.
+     */
+    @Test
+    void testBuildEncoded()
+    {
+        var customerURI = URIBuilder.createURL()
+                                    .scheme(SCHEME)
+                                    .server(SERVER)
+                                    .pathElements("rest", "customers", ONE_CUSTOMER);
+        EncodedURI encoded = customerURI.buildEncoded();
+        assertEquals("https://servername/rest/customers/2024%2F1234", encoded.toString());
+        assertEquals(customerURI.buildString(), encoded.toString());
+        assertEquals(SCHEME, encoded.getScheme());
+        assertEquals(SERVER, encoded.getRawAuthority());
+        assertEquals("/rest/customers/2024%2F1234", encoded.getRawPath());
+        assertArrayEquals(new String[] { "rest", "customers", ONE_CUSTOMER }, encoded.getPathElements());
+        assertEquals(customerURI.build(), encoded.toURI());
+        assertSame(encoded.toURI(), encoded.toURI());
+        assertEquals(encoded.toURI().getRawPath(), encoded.getRawPath());
+    }
+
+    /**
+     * Relative URLs have no leading slash in the path.
+     */
+    @Test
+    void testBuildEncodedRelative()
+    {
+        EncodedURI encoded = URIBuilder.createRelativeURL().pathElements("addresses", "shipping address").buildEncoded();
+        assertEquals("addresses/shipping%20address", encoded.getRawPath());
+        assertEquals(encoded.toURI().getRawPath(), encoded.getRawPath());
+    }
+
+    /**
+     * The encoded URI is pure ASCII and can be written directly into byte buffers, arrays and streams.
+     */
+    @ParameterizedTest()
+    @MethodSource("provideCustomerIDandExpectedPath")
+    void testWriteTo(String customerID, String expectedURIAsString) throws IOException
+    {
+        byte[] expected = expectedURIAsString.getBytes(StandardCharsets.US_ASCII);
+        var base = URIBuilder.createURL().scheme(SCHEME).server(SERVER).pathElements("rest", "customers");
+        assertEquals(expected.length, base.pathElements(customerID).encodedLength());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(128);
+        base.pathElements(customerID).writeTo(direct);
+        byte[] actual = new byte[direct.flip().remaining()];
+        direct.get(actual);
+        assertArrayEquals(expected, actual);
+
+        byte[] array = new byte[128];
+        int end = base.pathElements(customerID).writeTo(array, 3);
+        assertArrayEquals(expected, Arrays.copyOfRange(array, 3, end));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        base.pathElements(customerID).writeTo(out);
+        assertArrayEquals(expected, out.toByteArray());
+
+        // cached encoded URI
+        var cached = base.pathElements(customerID);
+        cached.buildString();
+        assertEquals(expected.length, cached.encodedLength());
+        assertArrayEquals(expected, Arrays.copyOf(array, cached.writeTo(array, 0)));
+    }
+
+    /**
+     * A long URI is streamed in small chunks, also a path element that is longer than a chunk.
+     */
+    @Test
+    void testWriteToStreamInChunks() throws IOException
+    {
+        var base = URIBuilder.createURL().scheme(SCHEME).server(SERVER).pathElements("rest", "customers");
+        var url = base.pathElements("a b".repeat(100), "c".repeat(1000)).pathElements("2024/1234".repeat(60), "addresses");
+        String expected = url.buildString();
+        var fresh = base.pathElements("a b".repeat(100), "c".repeat(1000)).pathElements("2024/1234".repeat(60), "addresses");
+        List<Integer> writes = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream()
+        {
+            @Override
+            public synchronized void write(byte[] b, int off, int len)
+            {
+                writes.add(len);
+                super.write(b, off, len);
+            }
+        };
+        fresh.writeTo(out);
+        assertEquals(expected, out.toString(StandardCharsets.US_ASCII));
+        assertTrue(writes.size() > 1);
+        assertTrue(writes.stream().allMatch(len -> len <= 512), writes.toString());
+        // cached encoded URI
+        out.reset();
+        url.writeTo(out);
+        assertEquals(expected, out.toString(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Nothing is written, if the buffer is too small.
+     */
+    @Test
+    void testWriteToOverflow()
+    {
+        var customerURI = URIBuilder.createURL().scheme(SCHEME).server(SERVER).pathElements("rest", "customers", "Müller");
+        assertEquals("https://servername/rest/customers/M%C3%BCller".length(), customerURI.encodedLength());
+        ByteBuffer buffer = ByteBuffer.allocate(customerURI.encodedLength() - 1);
+        assertThrows(BufferOverflowException.class, () -> customerURI.writeTo(buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    /**
+     * A server is appended as it is, its non-ASCII characters can't be written as ASCII bytes.
+     * The host is converted to Punycode.
+     */
+    @Test
+    void testWriteToNonASCIIServer() throws IOException
+    {
+        var server = URIBuilder.createURL().scheme(SCHEME).server("münchen.de").pathElements("rest");
+        assertEquals("https://münchen.de/rest", server.buildString());
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        assertThrows(IllegalArgumentException.class, () -> server.writeTo(buffer));
+        assertEquals(0, buffer.position());
+        assertThrows(IllegalArgumentException.class, () -> server.writeTo(new byte[64], 0));
+        assertThrows(IllegalArgumentException.class, () -> server.pathElements("customers").writeTo(new ByteArrayOutputStream()));
+        assertThrows(IllegalArgumentException.class, () -> new URLStore().add(server.pathElements("customers")));
+        var scheme = URIBuilder.createURL().scheme("httpß").server(SERVER).pathElements("rest");
+        assertThrows(IllegalArgumentException.class, () -> scheme.writeTo(new byte[64], 0));
+        assertThrows(IllegalArgumentException.class, () -> scheme.writeTo(new ByteArrayOutputStream()));
+
+        var host = URIBuilder.createURL().scheme(SCHEME).host("münchen.de").pathElements("rest");
+        byte[] expected = "https://xn--mnchen-3ya.de/rest".getBytes(StandardCharsets.US_ASCII);
+        byte[] array = new byte[64];
+        assertArrayEquals(expected, Arrays.copyOf(array, host.writeTo(array, 0)));
+    }
+
+    /**
+     * The query parameters are encoded for the query, the separators '&amp;', '=' and the '+' are encoded in names and values.
+     */
+    @Test
+    void testQueryParameter()
+    {
+        var customersURI = URIBuilder.createURL().scheme(SCHEME).server(SERVER).pathElements("rest", "customers");
+        var query = customersURI.queryParam("name", "Müller & Söhne").queryParam("id", "2024/1234", "2024+1234").queryParam("active");
+        String expected = "https://servername/rest/customers?name=M%C3%BCller%20%26%20S%C3%B6hne&id=2024/1234&id=2024%2B1234&active";
+        assertEquals(expected, query.buildString());
+        assertEquals(expected.length(), query.encodedLength());
+        assertEquals(URI.create(expected), query.build());
+        assertEquals("name=Müller & Söhne&id=2024/1234&id=2024+1234&active", query.build().getQuery());
+    }
+
+    /**
+     * In form encoding mode a space is encoded as '+'.
+     */
+    @Test
+    void testFormEncodedQueryAndFragment()
+    {
+        var query = URIBuilder.createAbsoluteURL().pathElements("search")
+                              .queryParam("q", "shipping address ~1").formEncoded().fragment("page 2/3");
+        assertEquals("/search?q=shipping+address+%7E1#page%202/3", query.buildString());
+
+        EncodedURI encoded = query.buildEncoded();
+        assertEquals("/search", encoded.getRawPath());
+        assertEquals("q=shipping+address+%7E1", encoded.getRawQuery());
+        assertEquals("page%202/3", encoded.getRawFragment());
+        assertEquals(encoded.toURI().getRawFragment(), encoded.getRawFragment());
+        assertEquals(encoded.toURI().getRawQuery(), encoded.getRawQuery());
+
+        EncodedURI fragmentOnly = URIBuilder.createRelativeURL().pathElements("addresses").fragment("shipping").buildEncoded();
+        assertEquals("addresses#shipping", fragmentOnly.toString());
+        assertEquals("addresses", fragmentOnly.getRawPath());
+        assertEquals(null, fragmentOnly.getRawQuery());
+        assertEquals("shipping", fragmentOnly.getRawFragment());
+    }
 }
@@ -0,0 +1,80 @@
+package com.intershop.jdk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The URIDecoderTest shows that the decoder is the inverse of the path encoding of the URIBuilder.
+ * Unlike URLDecoder, the '+' is not decoded as space and an encoded slash stays in the path element.
+ */
+public class URIDecoderTest
+{
+    /**
+     * Parameter for tests
+     */
+    private static Stream<Arguments> providePathElements()
+    {
+        List<Arguments> args = new ArrayList<>();
+        args.add(Arguments.of((Object) new String[] { "rest", "customers", "2024-1234" }));
+        args.add(Arguments.of((Object) new String[] { "rest", "customers", "2024/1234" }));
+        args.add(Arguments.of((Object) new String[] { "rest", "customers", "2024 1234" }));
+        args.add(Arguments.of((Object) new String[] { "rest", "customers", "2024+1234" }));
+        args.add(Arguments.of((Object) new String[] { "100%", "a;b?c&d=e#f", "urn:isbn:0451450523" }));
+        args.add(Arguments.of((Object) new String[] { "Müller", "東京", "😀" }));
+        args.add(Arguments.of((Object) new String[] { "", "empty", "" }));
+        return args.stream();
+    }
+
+    @ParameterizedTest()
+    @MethodSource("providePathElements")
+    void testRoundTrip(String[] pathElements)
+    {
+        String encoded = URIBuilder.combinePathElements('/', pathElements);
+        assertArrayEquals(pathElements, URIDecoder.decodePathElements('/', encoded));
+        assertArrayEquals(pathElements, URIDecoder.decodeRawPath("/" + encoded));
+    }
+
+    @Test
+    void testRawPath()
+    {
+        assertArrayEquals(new String[] { "rest", "customers", "2024/1234" }, URIDecoder.decodeRawPath("/rest/customers/2024%2F1234"));
+        assertArrayEquals(new String[] { "addresses", "shipping address" }, URIDecoder.decodeRawPath("addresses/shipping%20address"));
+        assertArrayEquals(new String[] { "2024+1234" }, URIDecoder.decodeRawPath("/2024+1234"));
+        assertArrayEquals(new String[] { "m%C3%BCller" }, URIDecoder.decodeRawPath("/m%25C3%25BCller"));
+        assertArrayEquals(new String[0], URIDecoder.decodeRawPath(""));
+        assertArrayEquals(new String[0], URIDecoder.decodeRawPath("/"));
+        assertArrayEquals(new String[] { "a", "" }, URIDecoder.decodeRawPath("/a/"));
+    }
+
+    /**
+     * Lower case hex digits are decoded, too.
+     */
+    @Test
+    void testDecode()
+    {
+        assertEquals("Müller", URIDecoder.decode("M%c3%bcller"));
+        String unescaped = "customers";
+        assertSame(unescaped, URIDecoder.decode(unescaped));
+        assertEquals("tom", URIDecoder.decode("customers/tom", 10, 13));
+    }
+
+    @ParameterizedTest()
+    @ValueSource(strings = { "%", "a%2", "%zz", "%+1", "%C3", "%C3%28", "%C3a", "%C0%80", "%E0%80%80", "%ED%A0%80", "%F4%90%80%80", "%FF",
+                    "%80" })
+    void testMalformed(String encoded)
+    {
+        assertThrows(IllegalArgumentException.class, () -> URIDecoder.decode(encoded));
+    }
+}
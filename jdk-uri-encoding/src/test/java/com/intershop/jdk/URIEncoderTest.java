@@ -0,0 +1,283 @@
+package com.intershop.jdk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * The URIEncoderTest verifies the table driven encoder against the expected percent-encoding of path segments.
+ * The non-ASCII identifier are encoded as UTF-8 bytes.
+ */
+public class URIEncoderTest
+{
+    private static final Map<String, String> EXPECTED_PATH_SEGMENT = new HashMap<>();
+    static
+    {
+        EXPECTED_PATH_SEGMENT.put("2024-1234", "2024-1234");
+        EXPECTED_PATH_SEGMENT.put("2024/1234", "2024%2F1234");
+        EXPECTED_PATH_SEGMENT.put("2024 1234", "2024%201234");
+        EXPECTED_PATH_SEGMENT.put("2024+1234", "2024+1234");
+        EXPECTED_PATH_SEGMENT.put("USA 2024;1234?a&b", "USA%202024;1234%3Fa&b");
+        EXPECTED_PATH_SEGMENT.put("urn:isbn:0451450523", "urn:isbn:0451450523");
+        EXPECTED_PATH_SEGMENT.put("100%", "100%25");
+        EXPECTED_PATH_SEGMENT.put("Müller", "M%C3%BCller");
+        EXPECTED_PATH_SEGMENT.put("東京", "%E6%9D%B1%E4%BA%AC");
+        EXPECTED_PATH_SEGMENT.put("😀", "%F0%9F%98%80");
+        EXPECTED_PATH_SEGMENT.put("broken\uD83D", "broken%3F");
+    }
+
+    /**
+     * Parameter for tests
+     */
+    private static Stream<Arguments> provideSegmentAndExpectedEncoding()
+    {
+        List<Arguments> args = new ArrayList<>();
+        for (Map.Entry<String, String> entry : EXPECTED_PATH_SEGMENT.entrySet())
+        {
+            args.add(Arguments.of(entry.getKey(), entry.getValue()));
+        }
+        return args.stream();
+    }
+
+    @ParameterizedTest()
+    @MethodSource("provideSegmentAndExpectedEncoding")
+    void testPathSegment(String segment, String expectedEncoding) throws IOException
+    {
+        assertEquals(expectedEncoding, URIEncoder.PATH_SEGMENT.encode(segment));
+        assertEquals("/" + expectedEncoding, URIEncoder.PATH_SEGMENT.encode(segment, new StringBuilder("/")).toString());
+        assertEquals(expectedEncoding, URIEncoder.PATH_SEGMENT.encode(segment, (Appendable)new StringWriter()).toString());
+        assertEquals(expectedEncoding.length(), URIEncoder.PATH_SEGMENT.encodedLength(segment));
+
+        char[] chars = new char[expectedEncoding.length() + 1];
+        assertEquals(chars.length, URIEncoder.PATH_SEGMENT.encode(segment, chars, 1));
+        assertEquals(expectedEncoding, new String(chars, 1, expectedEncoding.length()));
+
+        byte[] bytes = new byte[expectedEncoding.length() + 1];
+        assertEquals(bytes.length, URIEncoder.PATH_SEGMENT.encode(segment, bytes, 1));
+        assertEquals(expectedEncoding, new String(bytes, 1, expectedEncoding.length(), StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * A CharSequence is encoded without converting it to a string.
+     */
+    @ParameterizedTest()
+    @MethodSource("provideSegmentAndExpectedEncoding")
+    void testCharSequence(String segment, String expectedEncoding) throws IOException
+    {
+        CharBuffer slice = CharBuffer.wrap("[" + segment + "]", 1, segment.length() + 1);
+        assertEquals(expectedEncoding.length(), URIEncoder.PATH_SEGMENT.encodedLength(slice));
+        assertEquals("/" + expectedEncoding, URIEncoder.PATH_SEGMENT.encode(slice, new StringBuilder("/")).toString());
+        assertEquals(expectedEncoding, URIEncoder.PATH_SEGMENT.encode(new StringBuilder(segment), (Appendable) new StringWriter())
+                        .toString());
+
+        char[] chars = new char[expectedEncoding.length() + 1];
+        assertEquals(chars.length, URIEncoder.PATH_SEGMENT.encode(slice, chars, 1));
+        assertEquals(expectedEncoding, new String(chars, 1, expectedEncoding.length()));
+
+        assertEquals(expectedEncoding, URIEncoder.PATH_SEGMENT.encode(new StringReader(segment), new StringWriter()).toString());
+    }
+
+    /**
+     * The streaming encoder gets the value in chunks, a surrogate pair can be split between two chunks.
+     */
+    @Test
+    void testStreamingChunks() throws IOException
+    {
+        Random random = new Random(4711);
+        String specials = " /?%+&=ü東京😀😀\uD83D\uDE00";
+        for (int n = 0; n < 200; n++)
+        {
+            StringBuilder value = new StringBuilder();
+            int length = random.nextInt(3000);
+            while (value.length() < length)
+            {
+                value.append(random.nextInt(8) == 0 ? specials.charAt(random.nextInt(specials.length()))
+                                : (char) ('a' + random.nextInt(26)));
+            }
+            String segment = value.toString();
+            for (URIEncoder encoder : new URIEncoder[] { URIEncoder.PATH_SEGMENT, URIEncoder.FORM })
+            {
+                StringWriter target = new StringWriter();
+                int chunkSize = 1 + random.nextInt(7);
+                try (Writer writer = encoder.writer(target))
+                {
+                    for (int i = 0; i < segment.length(); i += chunkSize)
+                    {
+                        writer.write(segment.toCharArray(), i, Math.min(chunkSize, segment.length() - i));
+                        if (i % 5 == 0)
+                        {
+                            writer.flush();
+                        }
+                    }
+                }
+                assertEquals(encoder.encode(segment), target.toString());
+            }
+        }
+    }
+
+    /**
+     * Nothing to escape - nothing to allocate.
+     */
+    @Test
+    void testUnchangedInstance()
+    {
+        String segment = "customers";
+        assertSame(segment, URIEncoder.PATH_SEGMENT.encode(segment));
+    }
+
+    /**
+     * The separator of the path elements is always encoded.
+     */
+    @Test
+    void testPathSeparator()
+    {
+        assertEquals("a%3Ab/c", URIEncoder.forPathSeparator(':').encode("a:b/c"));
+        assertEquals("a:b%2Fc", URIEncoder.forPathSeparator('/').encode("a:b/c"));
+        assertEquals("a:b%2Fc%3B", URIEncoder.forPathSeparator(';').encode("a:b/c;"));
+        assertEquals("a:b%2Fc%7C", URIEncoder.forPathSeparator('|').encode("a:b/c|"));
+        // the encoders are created once
+        assertSame(URIEncoder.forPathSeparator(';'), URIEncoder.forPathSeparator(';'));
+        assertSame(URIEncoder.PATH_SEGMENT, URIEncoder.forPathSeparator('|'));
+    }
+
+    /**
+     * The build runs the tests with the module jdk.incubator.vector (task test) and without it (task testScalar).
+     * Both scans must encode a random corpus to the same bytes, the digest of the encoded corpus is fixed.
+     */
+    @Test
+    void testScalarAndVectorIdentical() throws NoSuchAlgorithmException
+    {
+        String vectorized = System.getProperty("com.intershop.jdk.uri.test.vectorized");
+        if (vectorized != null)
+        {
+            assertEquals(Boolean.parseBoolean(vectorized), URIEncoder.isVectorized());
+        }
+        Random random = new Random(4711);
+        String specials = " /?#[]%+&=:@~-._!$'()*,;\"\u007F\u0080ÿüéšŠ東京😀\uD83D";
+        URIEncoder[] encoders = { URIEncoder.PATH_SEGMENT, URIEncoder.URN_NSS, URIEncoder.QUERY, URIEncoder.QUERY_PARAMETER,
+                        URIEncoder.FORM, URIEncoder.USERINFO };
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        for (int n = 0; n < 500; n++)
+        {
+            int length = random.nextInt(600);
+            StringBuilder value = new StringBuilder(length);
+            while (value.length() < length)
+            {
+                value.append(random.nextInt(32) == 0 ? specials.charAt(random.nextInt(specials.length()))
+                                : (char) ('a' + random.nextInt(26)));
+            }
+            for (URIEncoder encoder : encoders)
+            {
+                digest.update(encoder.encode(value.toString()).getBytes(StandardCharsets.US_ASCII));
+                digest.update((byte) '\n');
+            }
+        }
+        assertEquals("691bad328fa7e55a3daae47a4ff6ef84a74d75a20be4c0bbe24501fa6c77cac5", HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Long values are scanned with the Vector API if the module jdk.incubator.vector is enabled,
+     * the result must be the same as the byte by byte encoding.
+     */
+    @Test
+    void testLongValues()
+    {
+        assertEquals(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(), URIEncoder.isVectorized());
+        Random random = new Random(4711);
+        String specials = " /?#[]%+&=:@~-._!$'()*,;\"\u007F\u0080ÿüé東京😀\uD83D";
+        URIEncoder[] encoders = { URIEncoder.PATH_SEGMENT, URIEncoder.URN_NSS, URIEncoder.QUERY_PARAMETER, URIEncoder.FORM };
+        for (int length = 8; length <= 4096; length *= 2)
+        {
+            for (int n = 0; n < 20; n++)
+            {
+                StringBuilder value = new StringBuilder(length);
+                while (value.length() < length)
+                {
+                    value.append(random.nextInt(16) == 0 ? specials.charAt(random.nextInt(specials.length()))
+                                    : (char) ('a' + random.nextInt(26)));
+                }
+                String segment = value.toString();
+                for (URIEncoder encoder : encoders)
+                {
+                    String expected = encodeBytes(encoder, segment);
+                    assertEquals(expected, encoder.encode(segment));
+                    assertEquals(expected.length(), encoder.encodedLength(segment));
+                }
+            }
+        }
+        // a surrogate pair must not shift the scan
+        String pair = "😀" + "a".repeat(100) + "東" + "b".repeat(100);
+        assertEquals(encodeBytes(URIEncoder.PATH_SEGMENT, pair), URIEncoder.PATH_SEGMENT.encode(pair));
+        // the low byte of \u0161 and \u6761 is an allowed character
+        String lowBytes = "a".repeat(100) + "\u0161" + "b".repeat(100) + "\u6761";
+        assertEquals(encodeBytes(URIEncoder.PATH_SEGMENT, lowBytes), URIEncoder.PATH_SEGMENT.encode(lowBytes));
+        // characters to escape at the borders of the copied windows
+        String borders = "a".repeat(127) + " " + "b".repeat(128) + "?" + "c".repeat(255) + "/" + "d".repeat(2000);
+        assertEquals(encodeBytes(URIEncoder.PATH_SEGMENT, borders), URIEncoder.PATH_SEGMENT.encode(borders));
+        assertEquals(encodeBytes(URIEncoder.QUERY, borders), URIEncoder.QUERY.encode(borders));
+    }
+
+    /**
+     * Long values without characters to escape are returned unchanged, also by the Vector API scanner.
+     */
+    @Test
+    void testUnchangedLongValue()
+    {
+        String segment = "abcdefghijklmnopqrstuvwxyz0123456789-._~!$&'()*+,;=:@".repeat(40);
+        assertSame(segment, URIEncoder.PATH_SEGMENT.encode(segment));
+        assertEquals(segment.length(), URIEncoder.PATH_SEGMENT.encodedLength(segment));
+        String query = segment + "/?";
+        assertSame(query, URIEncoder.QUERY.encode(query));
+    }
+
+    /**
+     * Reference implementation, encodes the UTF-8 bytes one by one, a malformed surrogate is always encoded as %3F.
+     */
+    private static String encodeBytes(URIEncoder encoder, String value)
+    {
+        StringBuilder builder = new StringBuilder();
+        value.codePoints().forEach(codePoint -> {
+            if (Character.getType(codePoint) == Character.SURROGATE)
+            {
+                builder.append("%3F");
+                return;
+            }
+            for (byte b : new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8))
+            {
+                if (encoder == URIEncoder.FORM && b == ' ')
+                {
+                    builder.append('+');
+                }
+                else if (b >= 0 && encoder.isAllowed((char) b))
+                {
+                    builder.append((char) b);
+                }
+                else
+                {
+                    builder.append('%').append(String.format("%02X", b & 0xFF));
+                }
+            }
+        });
+        return builder.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package com.intershop.jdk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The URIResolverTest verifies the resolution with the examples of RFC 3986 section 5.4
+ * and shows that encoded slashes are kept.
+ */
+public class URIResolverTest
+{
+    /**
+     * Base URI of the RFC examples: http://a/b/c/d;p?q
+     */
+    private static final EncodedURI BASE = URIBuilder.createURL().scheme("http").server("a").pathElements("b", "c", "d;p")
+                    .queryParam("q").buildEncoded();
+
+    /**
+     * Parameter for tests
+     */
+    private static Stream<Arguments> provideReferenceAndTarget()
+    {
+        String[][] examples = {
+                        // normal examples
+                        { "g:h", "g:h" }, { "g", "http://a/b/c/g" }, { "./g", "http://a/b/c/g" }, { "g/", "http://a/b/c/g/" },
+                        { "/g", "http://a/g" }, { "//g", "http://g" }, { "?y", "http://a/b/c/d;p?y" }, { "g?y", "http://a/b/c/g?y" },
+                        { "#s", "http://a/b/c/d;p?q#s" }, { "g#s", "http://a/b/c/g#s" }, { "g?y#s", "http://a/b/c/g?y#s" },
+                        { ";x", "http://a/b/c/;x" }, { "g;x", "http://a/b/c/g;x" }, { "g;x?y#s", "http://a/b/c/g;x?y#s" },
+                        { "", "http://a/b/c/d;p?q" }, { ".", "http://a/b/c/" }, { "./", "http://a/b/c/" }, { "..", "http://a/b/" },
+                        { "../", "http://a/b/" }, { "../g", "http://a/b/g" }, { "../..", "http://a/" }, { "../../", "http://a/" },
+                        { "../../g", "http://a/g" },
+                        // abnormal examples
+                        { "../../../g", "http://a/g" }, { "../../../../g", "http://a/g" }, { "/./g", "http://a/g" },
+                        { "/../g", "http://a/g" }, { "g.", "http://a/b/c/g." }, { ".g", "http://a/b/c/.g" }, { "g..", "http://a/b/c/g.." },
+                        { "..g", "http://a/b/c/..g" }, { "./../g", "http://a/b/g" }, { "./g/.", "http://a/b/c/g/" },
+                        { "g/./h", "http://a/b/c/g/h" }, { "g/../h", "http://a/b/c/h" }, { "g;x=1/./y", "http://a/b/c/g;x=1/y" },
+                        { "g;x=1/../y", "http://a/b/c/y" }, { "g?y/./x", "http://a/b/c/g?y/./x" }, { "g?y/../x", "http://a/b/c/g?y/../x" },
+                        { "g#s/./x", "http://a/b/c/g#s/./x" }, { "g#s/../x", "http://a/b/c/g#s/../x" }, { "http:g", "http:g" } };
+        List<Arguments> args = new ArrayList<>();
+        for (String[] example : examples)
+        {
+            args.add(Arguments.of(example[0], example[1]));
+        }
+        return args.stream();
+    }
+
+    @ParameterizedTest()
+    @MethodSource("provideReferenceAndTarget")
+    void testResolve(String reference, String target)
+    {
+        EncodedURI resolved = BASE.resolve(reference);
+        assertEquals(target, resolved.toString());
+        // the components are the same as the components of the parsed target
+        URI expected = URI.create(target);
+        assertEquals(expected.getScheme(), resolved.getScheme());
+        assertEquals(expected.getRawAuthority(), resolved.getRawAuthority());
+        if (expected.getRawPath() != null)
+        {
+            assertEquals(expected.getRawPath(), resolved.getRawPath());
+        }
+        assertEquals(expected.getRawQuery(), resolved.getRawQuery());
+        assertEquals(expected.getRawFragment(), resolved.getRawFragment());
+    }
+
+    /**
+     * URI#resolve decodes nothing either, but the builder keeps the encoded slash of the path element.
+     */
+    @Test
+    void testEncodedSlash()
+    {
+        EncodedURI customer = URIBuilder.createURL().scheme("https").server("servername")
+                        .pathElements("rest", "customers", "2024/1234", "addresses").buildEncoded();
+        EncodedURI address = customer.resolve("addresses/shipping%20address");
+        assertEquals("https://servername/rest/customers/2024%2F1234/addresses/shipping%20address", address.toString());
+        assertArrayEquals(new String[] { "rest", "customers", "2024/1234", "addresses", "shipping address" }, address.getPathElements());
+        assertEquals("https://servername/rest/customers/2024%2F1234/orders",
+                        customer.resolve(URIBuilder.createRelativeURL().pathElements("orders")).toString());
+    }
+
+    @Test
+    void testResolveBuilder()
+    {
+        EncodedURI customer = URIBuilder.createURL().scheme("https").server("servername")
+                        .pathElements("rest", "customers", "2024-1234").buildEncoded();
+        assertEquals("https://servername/rest/customers/urn:isbn:1",
+                        customer.resolve(URIBuilder.createRelativeURL().pathElements("urn:isbn:1")).toString());
+        assertEquals("https://servername/rest/orders/2024%2F1",
+                        customer.resolve(URIBuilder.createRelativeURL().pathElements("..", "orders", "2024/1")).toString());
+        assertEquals("https://servername/status",
+                        customer.resolve(URIBuilder.createAbsoluteURL().pathElements("status")).toString());
+        assertEquals(customer.toString(), customer.resolve(URIBuilder.createRelativeURL().pathElements()).toString());
+        assertThrows(IllegalArgumentException.class,
+                        () -> customer.resolve(URIBuilder.createURL().scheme("https").server("other").pathElements("a")));
+    }
+}
@@ -0,0 +1,125 @@
+package com.intershop.jdk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The URIRouterTest shows that the variable path elements are decoded after the split of the path,
+ * so an encoded slash stays in the path element.
+ */
+public class URIRouterTest
+{
+    private static final String P = URIBuilder.PLACEHOLDER;
+
+    private static URIRouter<String> createRouter()
+    {
+        return new URIRouter<String>()
+                        .addRoute("root")
+                        .addRoute("customers", "rest", "customers")
+                        .addRoute("customer", "rest", "customers", P)
+                        .addRoute("current", "rest", "customers", "-")
+                        .addRoute("addresses", "rest", "customers", P, "addresses")
+                        .addRoute("address", "rest", "customers", P, "addresses", P)
+                        .addRoute("shipping", "rest", "customers", P, "addresses", "shipping address")
+                        .addRoute("orders", "rest", "orders", P)
+                        .addRoute("item", "rest", "orders", P, P)
+                        .addRoute("category", "rest", "categories", "Männer/Schuhe");
+    }
+
+    /**
+     * Parameter for tests
+     */
+    private static Stream<Arguments> providePathAndMatch()
+    {
+        List<Arguments> args = new ArrayList<>();
+        args.add(Arguments.of("/", "root", new String[0]));
+        args.add(Arguments.of("/rest/customers", "customers", new String[0]));
+        args.add(Arguments.of("/rest/customers/2024-1234", "customer", new String[] { "2024-1234" }));
+        args.add(Arguments.of("/rest/customers/2024%2F1234", "customer", new String[] { "2024/1234" }));
+        args.add(Arguments.of("/rest/customers/2024+1234", "customer", new String[] { "2024+1234" }));
+        args.add(Arguments.of("/rest/customers/-", "current", new String[0]));
+        args.add(Arguments.of("/rest/customers/-1", "customer", new String[] { "-1" }));
+        args.add(Arguments.of("/rest/customers/2024%2F1234/addresses", "addresses", new String[] { "2024/1234" }));
+        args.add(Arguments.of("/rest/customers/2024%2F1234/addresses/home%20address", "address",
+                        new String[] { "2024/1234", "home address" }));
+        args.add(Arguments.of("/rest/customers/2024%2F1234/addresses/shipping%20address", "shipping", new String[] { "2024/1234" }));
+        args.add(Arguments.of("/rest/customers/-/addresses/shipping", "address", new String[] { "-", "shipping" }));
+        args.add(Arguments.of("/rest/orders/4711/M%C3%BCller", "item", new String[] { "4711", "Müller" }));
+        args.add(Arguments.of("/rest/categories/M%C3%A4nner%2FSchuhe", "category", new String[0]));
+        return args.stream();
+    }
+
+    @ParameterizedTest()
+    @MethodSource("providePathAndMatch")
+    void testMatch(String rawPath, String handler, String[] variables)
+    {
+        URIRouter.Match<String> match = createRouter().match(rawPath);
+        assertEquals(handler, match.getHandler());
+        assertArrayEquals(variables, match.getVariables());
+    }
+
+    @Test
+    void testNoMatch()
+    {
+        URIRouter<String> router = createRouter();
+        assertNull(router.match(""));
+        assertNull(router.match("/rest"));
+        assertNull(router.match("/rest/customers/"));
+        assertNull(router.match("/rest/customers//addresses"));
+        assertNull(router.match("/rest/customers/2024/1234"));
+        assertNull(router.match("/rest/orders"));
+        assertNull(router.match("/rest/categories/M%C3%A4nner/Schuhe"));
+        assertNull(router.match("/rest/customersX"));
+    }
+
+    /**
+     * The route of the builder output matches, the variables are the path elements of the builder.
+     */
+    @Test
+    void testBuilderOutput()
+    {
+        EncodedURI uri = URIBuilder.createURL().scheme("https").server("servername")
+                        .pathElements("rest", "customers", "2024/1234", "addresses", "home 1").buildEncoded();
+        URIRouter.Match<String> match = createRouter().match(uri.getRawPath());
+        assertEquals("address", match.getHandler());
+        assertEquals("2024/1234", match.getVariable(0));
+        assertEquals("home 1", match.getVariable(1));
+    }
+
+    @Test
+    void testManyRoutes()
+    {
+        URIRouter<Integer> router = new URIRouter<>();
+        for (int i = 0; i < 10_000; i++)
+        {
+            router.addRoute(i, "rest", "resource" + i, P, "items");
+        }
+        assertEquals(10_000, router.size());
+        for (int i = 0; i < 10_000; i += 7)
+        {
+            URIRouter.Match<Integer> match = router.match("/rest/resource" + i + "/id" + i + "/items");
+            assertEquals(Integer.valueOf(i), match.getHandler());
+            assertEquals("id" + i, match.getVariable(0));
+        }
+        assertNull(router.match("/rest/resource10000/id/items"));
+    }
+
+    @Test
+    void testDuplicateRoute()
+    {
+        URIRouter<String> router = createRouter();
+        assertThrows(IllegalArgumentException.class, () -> router.addRoute("again", "rest", "customers", P));
+        assertThrows(IllegalArgumentException.class, () -> router.match("/rest/customers/%zz"));
+    }
+}
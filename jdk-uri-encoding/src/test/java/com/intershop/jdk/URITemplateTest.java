@@ -0,0 +1,77 @@
+package com.intershop.jdk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The URITemplateTest shows that a compiled template creates the same URI as the URIBuilder.
+ */
+public class URITemplateTest
+{
+    private static final Map<String, String> EXPECTED_URI_PATH = new HashMap<>();
+    static
+    {
+        EXPECTED_URI_PATH.put("2024-1234", "https://servername/rest/customers/2024-1234/addresses/shipping%20address");
+        EXPECTED_URI_PATH.put("2024/1234", "https://servername/rest/customers/2024%2F1234/addresses/shipping%20address");
+        EXPECTED_URI_PATH.put("2024 1234", "https://servername/rest/customers/2024%201234/addresses/shipping%20address");
+        EXPECTED_URI_PATH.put("2024+1234", "https://servername/rest/customers/2024+1234/addresses/shipping%20address");
+        EXPECTED_URI_PATH.put("Müller", "https://servername/rest/customers/M%C3%BCller/addresses/shipping%20address");
+    }
+    private static final String SCHEME = "https";
+    private static final String SERVER = "servername";
+    private static final URITemplate ADDRESS_TEMPLATE = URIBuilder.compileTemplate(SCHEME, SERVER,
+                    "rest", "customers", URIBuilder.PLACEHOLDER, "addresses", URIBuilder.PLACEHOLDER);
+
+    /**
+     * Parameter for tests
+     */
+    private static Stream<Arguments> provideCustomerIDandExpectedPath()
+    {
+        List<Arguments> args = new ArrayList<>();
+        for (Map.Entry<String, String> entry : EXPECTED_URI_PATH.entrySet())
+        {
+            args.add(Arguments.of(entry.getKey(), entry.getValue()));
+        }
+        return args.stream();
+    }
+
+    @ParameterizedTest()
+    @MethodSource("provideCustomerIDandExpectedPath")
+    void testExpand(String customerID, String expectedURIAsString)
+    {
+        assertEquals(expectedURIAsString, ADDRESS_TEMPLATE.expand(customerID, "shipping address"));
+        assertEquals(URI.create(expectedURIAsString), ADDRESS_TEMPLATE.expandURI(customerID, "shipping address"));
+        URI built = URIBuilder.createURL().scheme(SCHEME).server(SERVER)
+                              .pathElements("rest", "customers", customerID, "addresses", "shipping address").build();
+        assertEquals(built.toString(), ADDRESS_TEMPLATE.expand(customerID, "shipping address"));
+    }
+
+    /**
+     * A string equal to the placeholder is a constant path element.
+     */
+    @Test
+    void testConstantBraces()
+    {
+        URITemplate template = URIBuilder.compileTemplate(SCHEME, SERVER, "{}", URIBuilder.PLACEHOLDER);
+        assertEquals(1, template.getVariableCount());
+        assertEquals("https://servername/%7B%7D/a%20b", template.expand("a b"));
+    }
+
+    @Test
+    void testWrongNumberOfPathElements()
+    {
+        assertThrows(IllegalArgumentException.class, () -> ADDRESS_TEMPLATE.expand("2024-1234"));
+    }
+}
@@ -0,0 +1,131 @@
+package com.intershop.jdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The URLBatchTest shows that the parallel batch creates the same URLs in the same order as the single-threaded builder.
+ */
+public class URLBatchTest
+{
+    private static final String SCHEME = "https";
+    private static final String SERVER = "servername";
+    private static final int ROWS = 200_000;
+    private static final String[] ID_PATTERNS = { "2024-", "2024/", "2024 ", "2024+", "Müller ", "東京 " };
+
+    private static List<String[]> createRows()
+    {
+        List<String[]> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++)
+        {
+            rows.add(new String[] { ID_PATTERNS[i % ID_PATTERNS.length] + i, "variations", Integer.toString(i % 7) });
+        }
+        return rows;
+    }
+
+    private static List<String> buildSingleThreaded(URLBuilder.URLBuilderWithServerAndPath base, List<String[]> rows)
+    {
+        List<String> expected = new ArrayList<>(rows.size());
+        for (String[] row : rows)
+        {
+            expected.add(base.pathElements(row).buildString());
+        }
+        return expected;
+    }
+
+    @Test
+    void testBuildStrings()
+    {
+        var products = URIBuilder.createURL().scheme(SCHEME).server(SERVER).pathElements("rest", "products");
+        List<String[]> rows = createRows();
+        List<String> expected = buildSingleThreaded(products, rows);
+        assertEquals(expected, URLBatch.buildStrings(products, rows));
+        assertEquals(expected, URLBatch.buildStrings(products, rows, new ForkJoinPool(3)));
+        assertEquals("https://servername/rest/products/2024%2F1/variations/1", expected.get(1));
+    }
+
+    @Test
+    void testBuildStringsToSink()
+    {
+        var products = URIBuilder.createRelativeURL().pathElements("products");
+        List<String[]> rows = createRows();
+        List<String> actual = new ArrayList<>(rows.size());
+        URLBatch.buildStrings(products, rows, actual::add);
+        assertEquals(buildSingleThreaded(products, rows), actual);
+
+        actual.clear();
+        URLBatch.buildStrings(products, rows, actual::add, new ForkJoinPool(3));
+        assertEquals(buildSingleThreaded(products, rows), actual);
+    }
+
+    @Test
+    void testBuildStringsFromStream()
+    {
+        var products = URIBuilder.createAbsoluteURL().pathElements();
+        List<String[]> rows = createRows();
+        assertEquals(buildSingleThreaded(products, rows),
+                        URLBatch.buildStrings(products, rows.parallelStream()).collect(Collectors.toList()));
+
+        // a long URL replaces the scratch buffer of the thread
+        List<String[]> longRows = List.of(new String[] { "a".repeat(5000) }, new String[] { "b" });
+        assertEquals(buildSingleThreaded(products, longRows),
+                        URLBatch.buildStrings(products, longRows.stream()).collect(Collectors.toList()));
+    }
+
+    /**
+     * A linked list is copied once, an access by index would take quadratic time.
+     */
+    @Test
+    void testBuildStringsFromLinkedList()
+    {
+        var products = URIBuilder.createURL().scheme(SCHEME).server(SERVER).pathElements("rest", "products");
+        List<String[]> rows = new LinkedList<>(createRows());
+        List<String> expected = buildSingleThreaded(products, rows);
+        assertEquals(expected, URLBatch.buildStrings(products, rows));
+
+        List<String> actual = new ArrayList<>(rows.size());
+        URLBatch.buildStrings(products, rows, actual::add);
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Each URL of a batch is reported to the build listener, the common part is not.
+     */
+    @Test
+    void testBuildCount()
+    {
+        var products = URIBuilder.createURL().scheme(SCHEME).server(SERVER).pathElements("rest", "products");
+        List<String[]> rows = createRows().subList(0, 1000);
+        List<String> expected = buildSingleThreaded(products, rows);
+        long length = expected.stream().mapToLong(String::length).sum();
+        URIBuildCounters counters = new URIBuildCounters();
+        URIBuilder.setBuildListener(counters);
+        try
+        {
+            URLBatch.buildStrings(products, rows, new ForkJoinPool(3));
+            assertEquals(rows.size(), counters.getBuildCount());
+            assertEquals(5L * rows.size(), counters.getBuiltSegmentCount());
+            assertEquals(length, counters.getBuiltLength());
+
+            counters.reset();
+            URLBatch.buildStrings(products, rows, url -> { });
+            assertEquals(rows.size(), counters.getBuildCount());
+
+            counters.reset();
+            URLBatch.buildStrings(products, rows.parallelStream()).forEach(url -> { });
+            assertEquals(rows.size(), counters.getBuildCount());
+            assertEquals(length, counters.getBuiltLength());
+        }
+        finally
+        {
+            URIBuilder.setBuildListener(null);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.intershop.jdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The URLStoreTest verifies that the stored URLs are equal to the URLs of the builders
+ * and that the store needs less memory than the strings.
+ */
+public class URLStoreTest
+{
+    private static final URLBuilder.URLBuilderWithServerAndPath CUSTOMERS = URIBuilder.createURL().scheme("https")
+                    .server("www.example.com").pathElements("rest", "customers");
+
+    @Test
+    void testBuilders()
+    {
+        URLStore store = new URLStore();
+        List<URLBuilder.URLBuilderWithServerAndPath> builders = List.of(
+                        CUSTOMERS.pathElements("2024/1234", "addresses"),
+                        CUSTOMERS.pathElements("Müller"),
+                        CUSTOMERS.pathElements(),
+                        CUSTOMERS.pathElements("2024 1234").pathElements(),
+                        CUSTOMERS,
+                        URIBuilder.createURL().scheme("https").server("www.example.com").pathElements(),
+                        URIBuilder.createURL().scheme("https").server("www.example.com").pathElements().pathElements("a b"),
+                        URIBuilder.createRelativeURL().pathElements("products", "a/b"));
+        int[] handles = new int[builders.size()];
+        for (int i = 0; i < handles.length; i++)
+        {
+            handles[i] = store.add(builders.get(i));
+        }
+        assertEquals(builders.size(), store.size());
+        for (int i = 0; i < handles.length; i++)
+        {
+            String expected = builders.get(i).buildString();
+            assertEquals(expected, store.getString(handles[i]));
+            assertEquals(expected.length(), store.length(handles[i]));
+            assertEquals(URI.create(expected), store.getURI(handles[i]));
+
+            ByteBuffer buffer = ByteBuffer.allocate(expected.length());
+            store.writeTo(handles[i], buffer);
+            assertEquals(expected, new String(buffer.array(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Small chunks force records at the start of new chunks.
+     */
+    @Test
+    void testChunks()
+    {
+        URLStore store = new URLStore(64);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+        {
+            URLBuilder.URLBuilderWithServerAndPath url = CUSTOMERS.pathElements(String.valueOf(i), "addresses");
+            expected.add(url.buildString());
+            assertEquals(i, store.add(i % 3 == 0 ? url : url.pathElements("shipping address")));
+            if (i % 3 != 0)
+            {
+                expected.set(i, expected.get(i) + "/shipping%20address");
+            }
+        }
+        for (int i = 0; i < expected.size(); i++)
+        {
+            assertEquals(expected.get(i), store.getString(i));
+        }
+        assertThrows(IllegalArgumentException.class, () -> store.add("https://www.example.com/" + "a".repeat(64)));
+        assertThrows(IllegalArgumentException.class, () -> store.add("https://www.example.com/Müller"));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getString(expected.size()));
+    }
+
+    /**
+     * Compares the bytes per URL of the store with a list of strings. A string with Latin-1 characters needs
+     * the string object (24 bytes), the array header (16 bytes), the characters aligned to 8 bytes
+     * and the compressed reference of the list (4 bytes).
+     */
+    @Test
+    void testMemoryFootprint()
+    {
+        int count = 100_000;
+        URLStore store = new URLStore();
+        long stringBytes = 0;
+        for (int i = 0; i < count; i++)
+        {
+            URLBuilder.URLBuilderWithServerAndPath url = CUSTOMERS.pathElements(String.valueOf(1_000_000 + i), "addresses",
+                            "shipping");
+            store.add(url);
+            stringBytes += 24 + align(16 + url.encodedLength()) + 4;
+        }
+        assertEquals(1, store.getPrefixCount());
+        double storeBytesPerURL = (double) store.getMemoryFootprint() / count;
+        double stringBytesPerURL = (double) stringBytes / count;
+        assertTrue(storeBytesPerURL * 2 < stringBytesPerURL,
+                        "store: " + storeBytesPerURL + " bytes per URL, strings: " + stringBytesPerURL + " bytes per URL");
+    }
+
+    /**
+     * Each parent is a prefix of its own, the estimate includes the string keys of the map of the prefixes.
+     */
+    @Test
+    void testMemoryFootprintOfPrefixes()
+    {
+        int count = 10_000;
+        URLStore store = new URLStore();
+        long empty = store.getMemoryFootprint();
+        long keyBytes = 0;
+        for (int i = 0; i < count; i++)
+        {
+            URLBuilder.URLBuilderWithServerAndPath parent = CUSTOMERS.pathElements(String.valueOf(1_000_000 + i));
+            store.add(parent.pathElements("addresses"));
+            keyBytes += 24 + align(16 + parent.encodedLength());
+        }
+        assertEquals(count, store.getPrefixCount());
+        assertTrue(store.getMemoryFootprint() - empty > 2 * keyBytes, "footprint: " + store.getMemoryFootprint());
+    }
+
+    private static long align(long bytes)
+    {
+        return (bytes + 7) & ~7L;
+    }
+}
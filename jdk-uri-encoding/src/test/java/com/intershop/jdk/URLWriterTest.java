@@ -0,0 +1,117 @@
+package com.intershop.jdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The URLWriterTest shows that the reusable writer creates the same URLs as the immutable builder.
+ */
+public class URLWriterTest
+{
+    private static final URLBuilder.URLBuilderWithServerAndPath CUSTOMERS = URIBuilder.createURL().scheme("https")
+                    .server("servername").pathElements("rest", "customers");
+
+    @Test
+    void testSegments()
+    {
+        URLWriter writer = new URLWriter();
+        String[] ids = { "2024-1234", "2024/1234", "2024 1234", "2024+1234", "Müller", "😀" };
+        for (String id : ids)
+        {
+            String expected = CUSTOMERS.pathElements(id, "addresses").buildString();
+            assertEquals(expected, writer.reset(CUSTOMERS).segment(id).segment("addresses").toString());
+            assertEquals(expected, writer.reset(CUSTOMERS).segments(id, "addresses").toString());
+            assertEquals(expected, writer.reset(CUSTOMERS).segment(CharBuffer.wrap("[" + id + "]", 1, id.length() + 1))
+                            .segment(new StringBuilder("addresses")).toString());
+            assertEquals(expected.length(), writer.length());
+        }
+        assertEquals("a/b%2Fc", writer.reset().segments("a", "b/c").toString());
+        assertEquals("https://servername/", writer.reset(URIBuilder.createURL().scheme("https").server("servername").pathElements())
+                        .toString());
+        assertEquals("https://servername/a", writer.reset(URIBuilder.createURL().scheme("https").server("servername").pathElements())
+                        .segment("a").toString());
+        assertEquals("/a/b", writer.reset(URIBuilder.createAbsoluteURL().pathElements("a")).segment("b").toString());
+    }
+
+    /**
+     * The buffer grows for long segments.
+     */
+    @Test
+    void testLongSegment()
+    {
+        String segment = "東京".repeat(1000);
+        URLWriter writer = new URLWriter();
+        assertEquals(CUSTOMERS.pathElements(segment).buildString(), writer.reset(CUSTOMERS).segment(segment).toString());
+    }
+
+    @Test
+    void testWriteTo() throws IOException
+    {
+        URLWriter writer = new URLWriter().reset(CUSTOMERS).segment("2024/1234");
+        String expected = "https://servername/rest/customers/2024%2F1234";
+
+        byte[] bytes = new byte[expected.length() + 1];
+        assertEquals(bytes.length, writer.writeTo(bytes, 1));
+        assertEquals(expected, new String(bytes, 1, expected.length(), StandardCharsets.US_ASCII));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(expected.length());
+        writer.writeTo(direct);
+        assertEquals(expected, StandardCharsets.US_ASCII.decode(direct.flip()).toString());
+        assertThrows(BufferOverflowException.class, () -> writer.writeTo(ByteBuffer.allocate(10)));
+
+        // a server appended as it is
+        URLWriter nonASCII = new URLWriter().reset(URIBuilder.createURL().scheme("https").server("münchen.de").pathElements());
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        assertThrows(IllegalArgumentException.class, () -> nonASCII.writeTo(buffer));
+        assertEquals(0, buffer.position());
+
+        assertEquals("<" + expected, writer.writeTo(new StringBuilder("<")).toString());
+        assertEquals(expected, writer.writeTo(new StringWriter()).toString());
+        assertEquals(expected, new StringBuilder().append(writer).toString());
+    }
+
+    @Test
+    void testPool()
+    {
+        URLWriterPool pool = new URLWriterPool(2);
+        URLWriter first = pool.acquire();
+        first.reset(CUSTOMERS).segment("a");
+        first.close();
+        first.close();
+        URLWriter second = pool.acquire();
+        URLWriter third = pool.acquire();
+        assertSame(first, second);
+        assertNotSame(second, third);
+        assertEquals(0, second.length());
+        second.close();
+        third.close();
+        try (URLWriter writer = pool.acquire())
+        {
+            assertEquals("https://servername/rest/customers/b", writer.reset(CUSTOMERS).segment("b").toString());
+        }
+    }
+
+    /**
+     * A writer with a buffer beyond the maximal capacity is not pooled.
+     */
+    @Test
+    void testPoolMaxCapacity()
+    {
+        URLWriterPool pool = new URLWriterPool(1, 256);
+        URLWriter writer = pool.acquire();
+        writer.reset(CUSTOMERS).segment("x".repeat(1000));
+        writer.close();
+        assertNotSame(writer, pool.acquire());
+    }
+}
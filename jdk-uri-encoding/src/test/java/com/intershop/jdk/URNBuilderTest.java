@@ -0,0 +1,90 @@
+package com.intershop.jdk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The URNBuilderTest shows how URNs for domain objects are created (RFC 8141).
+ * The ':' separates the elements of the namespace specific string, so it is encoded in the elements.
+ */
+public class URNBuilderTest
+{
+    private static final URNBuilder.URNBuilderWithNID ORDER_URN = URIBuilder.createURN().nid("Intershop").nssPrefix("order");
+
+    @Test
+    void testSimpleURN()
+    {
+        assertEquals(URI.create("urn:isbn:0451450523"), URIBuilder.createURN().nid("ISBN").nss("0451450523").build());
+        assertEquals("urn:intershop:order:tenant%3A1:2024/1234", URIBuilder.createURN().nid("intershop")
+                                                                            .nss("order", "tenant:1", "2024/1234").buildString());
+    }
+
+    /**
+     * The prefix "urn:intershop:order:" is encoded once and reused.
+     */
+    @Test
+    void testPrefix()
+    {
+        assertEquals("urn:intershop:order:", ORDER_URN.toString());
+        assertEquals("urn:intershop:order:inSPIRED:2024%201234", ORDER_URN.buildString("inSPIRED", "2024 1234"));
+        assertEquals("urn:intershop:order:M%C3%BCller:2024+1234", ORDER_URN.buildString("Müller", "2024+1234"));
+        assertEquals("urn:intershop:order", ORDER_URN.buildString());
+        assertEquals("urn:intershop:order:inspired:line:1", ORDER_URN.nssPrefix("inspired").nssPrefix("line").buildString("1"));
+    }
+
+    @Test
+    void testComponents()
+    {
+        var urn = ORDER_URN.nss("inspired", "2024-1234").rComponent("tenant=a b").qComponent("view=full?").fComponent("line 1");
+        String expected = "urn:intershop:order:inspired:2024-1234?+tenant=a%20b?=view=full%3F#line%201";
+        assertEquals(expected, urn.buildString());
+        assertEquals(expected.length(), urn.encodedLength());
+        assertEquals(URI.create(expected), urn.build());
+    }
+
+    /**
+     * The NSS must not start with a slash.
+     */
+    @Test
+    void testLeadingSlash()
+    {
+        var urn = URIBuilder.createURN().nid("example").nss("/a", "/b");
+        assertEquals("urn:example:%2Fa:/b", urn.buildString());
+        assertEquals(urn.buildString().length(), urn.encodedLength());
+        assertEquals(urn.buildString(), URIBuilder.createURN().nid("example").buildString("/a", "/b"));
+    }
+
+    @ParameterizedTest()
+    @ValueSource(strings = { "", "a", "-ab", "ab-", "a_b", "a b", "ö-nid", "123456789012345678901234567890123" })
+    void testInvalidNID(String nid)
+    {
+        assertThrows(IllegalArgumentException.class, () -> URIBuilder.createURN().nid(nid));
+    }
+
+    @Test
+    void testEmptyNSS()
+    {
+        assertThrows(IllegalArgumentException.class, () -> URIBuilder.createURN().nid("isbn").nss());
+        assertThrows(IllegalArgumentException.class, () -> URIBuilder.createURN().nid("isbn").buildString());
+        assertThrows(IllegalArgumentException.class, () -> URIBuilder.createURN().nid("isbn").buildString(""));
+    }
+
+    /**
+     * The path elements are joined with the given separator and can be decoded again.
+     */
+    @Test
+    void testCombinePathElements()
+    {
+        String[] elements = { "order", "tenant:1", "2024/1234" };
+        String combined = URIBuilder.combinePathElements(':', elements);
+        assertEquals("order:tenant%3A1:2024/1234", combined);
+        assertArrayEquals(elements, URIDecoder.decodePathElements(':', combined));
+    }
+}
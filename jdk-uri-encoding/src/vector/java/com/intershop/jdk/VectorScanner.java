@@ -0,0 +1,60 @@
+package com.intershop.jdk;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Scans 16 or 32 characters at once for characters that must be escaped (Vector API, jdk.incubator.vector).
+ *
+ * Two vectors of characters are narrowed to one vector of bytes, characters beyond ASCII are mapped to 0x80 before,
+ * so they are never allowed. A byte is allowed if the lookup of its low nibble and its high nibble in the nibble tables
+ * of the encoder have a common bit. The lookups are vector shuffles, so the allowed characters can be any ASCII set.
+ * The class is loaded by {@link URIEncoder} only if the module is available. It is compiled in its own source set,
+ * so the compilation of the other classes doesn't use the incubating module.
+ */
+final class VectorScanner implements URIEncoder.Scanner
+{
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED.vectorBitSize() >= 256
+                    ? ByteVector.SPECIES_256 : ByteVector.SPECIES_128;
+
+    /**
+     * Characters with the same shape as the bytes, so two vectors of characters fill one vector of bytes.
+     */
+    private static final VectorSpecies<Short> CHARS = BYTES == ByteVector.SPECIES_256
+                    ? ShortVector.SPECIES_256 : ShortVector.SPECIES_128;
+
+    @Override
+    public int scan(char[] chars, int from, int to, URIEncoder encoder)
+    {
+        ByteVector low = ByteVector.fromArray(BYTES, encoder.nibbleLow, 0);
+        ByteVector high = ByteVector.fromArray(BYTES, encoder.nibbleHigh, 0);
+        int i = from;
+        for (; i + BYTES.length() <= to; i += BYTES.length())
+        {
+            ByteVector v = narrow(chars, i, 0).or(narrow(chars, i + CHARS.length(), -1));
+            ByteVector lowNibbles = v.and((byte) 0x0F);
+            ByteVector highNibbles = v.lanewise(VectorOperators.LSHR, 4).and((byte) 0x0F);
+            ByteVector bits = low.rearrange(lowNibbles.toShuffle()).and(high.rearrange(highNibbles.toShuffle()));
+            VectorMask<Byte> escape = bits.compare(VectorOperators.EQ, (byte) 0);
+            if (escape.anyTrue())
+            {
+                return i + escape.firstTrue();
+            }
+        }
+        return i;
+    }
+
+    /**
+     * @param part 0 for the lower half of the bytes, -1 for the upper half
+     * @return characters as bytes, characters beyond ASCII as 0x80, the other half is zero
+     */
+    private static ByteVector narrow(char[] chars, int offset, int part)
+    {
+        ShortVector v = ShortVector.fromCharArray(CHARS, chars, offset);
+        v = v.blend((short) 0x80, v.compare(VectorOperators.UNSIGNED_GE, (short) 0x80));
+        return (ByteVector) v.convertShape(VectorOperators.S2B, BYTES, part);
+    }
+}
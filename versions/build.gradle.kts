@@ -11,6 +11,7 @@ val guiceVersion = "7.0.0"
 val opentracingVersion = "0.33.0"
 val prometheusSimpleclientVersion = "0.16.0"
 val slf4jVersion = "1.7.36"
+val jmhVersion = "1.37"
 
 dependencies {
     constraints {
@@ -19,6 +20,9 @@ dependencies {
 
         api("ch.qos.logback:logback-classic:${logbackVersion}")
         api("ch.qos.logback:logback-core:${logbackVersion}")
+
+        api("org.openjdk.jmh:jmh-core:${jmhVersion}")
+        api("org.openjdk.jmh:jmh-generator-annprocess:${jmhVersion}")
     }
 }
 